@@ -0,0 +1,278 @@
+package collin.timescreator.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+
+import collin.timescreator.selenium.utils.BrowserType;
+import collin.timescreator.selenium.utils.DriverThread;
+import collin.timescreator.selenium.utils.DriverThreadMode;
+import collin.timescreator.selenium.utils.DriverThreadScope;
+import collin.timescreator.selenium.utils.DriverUser;
+import collin.timescreator.util.ShiftScheduler;
+
+/**
+ * Compares running many DriverThreads as platform threads against running
+ * them on virtual threads. Each session blocks the way a real one does,
+ * in short sleeps like a WebDriverWait polling, without opening a browser.
+ * Sessions are run both as DriverThreads in a DriverThreadScope and as
+ * shift transitions all due at once on a ShiftScheduler dispatching in
+ * the mode, which is where a tutor's sign ins and outs really run.
+ * For each mode and way it prints how long starting every session took, the most
+ * platform threads alive at once, the heap and the resident memory they
+ * added, and the total time. Platform threads cost mostly native stack,
+ * which only the resident memory shows; it is read from /proc/self/status
+ * and printed as -1 where there is no such file.
+ * <p>
+ * Usage: DriverThreadBenchmark [sessions] [millis per session] [rounds]
+ * <p>
+ * Virtual threads need a runtime that has them; without one both modes
+ * use platform threads and should measure the same.
+ * @author colli
+ *
+ */
+public class DriverThreadBenchmark
+{
+	/**
+	 * How long each poll of a session sleeps, in milliseconds.
+	 */
+	private static final long POLL_MILLIS = 50;
+	
+	/**
+	 * Where the process's resident memory is read from.
+	 */
+	private static final Path PROCESS_STATUS = Paths.get("/proc/self/status");
+	
+	/**
+	 * Runs the benchmark.
+	 * @param args see the class description
+	 * @throws InterruptedException if the benchmark was interrupted
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		
+		System.out.println("Virtual threads supported: " + DriverThreadMode.isVirtualSupported());
+		System.out.println(sessions + " sessions blocking for " + millis + " ms, " + rounds + " rounds after a warm up");
+		System.out.println(String.format("%-9s %-6s %12s %14s %12s %12s %12s", "mode", "way", "start ms", "peak threads", "heap MB", "RSS MB", "total ms"));
+		for(DriverThreadMode mode : DriverThreadMode.values())
+		{
+			for(boolean scheduled : new boolean[] {false, true})
+			{
+				run(mode, scheduled, Math.min(sessions, 100), Math.min(millis, 200));
+				for(int i = 0; i < rounds; i++)
+				{
+					Result r = run(mode, scheduled, sessions, millis);
+					System.out.println(String.format("%-9s %-6s %12.1f %14d %12.1f %12.1f %12.1f", mode, scheduled ? "shift" : "scope",
+							r.startNanos / 1e6, r.peakThreads, r.heapBytes / (1024.0 * 1024.0),
+							r.residentBytes < 0 ? -1 : r.residentBytes / (1024.0 * 1024.0), r.totalNanos / 1e6));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Runs one round of sessions in a mode.
+	 * @param mode how to run the sessions
+	 * @param scheduled true to run them as shift transitions, false as DriverThreads
+	 * @param sessions amount of sessions
+	 * @param millis how long each session blocks
+	 * @return what was measured
+	 * @throws InterruptedException if the benchmark was interrupted
+	 */
+	private static Result run(DriverThreadMode mode, boolean scheduled, int sessions, long millis) throws InterruptedException
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long residentBefore = residentBytes();
+		threads.resetPeakThreadCount();
+		
+		Result result = new Result();
+		long start = System.nanoTime();
+		if(scheduled)
+		{
+			ShiftScheduler scheduler = new ShiftScheduler(Clock.systemUTC(), mode.dispatcher("Shift Worker"), ShiftScheduler.DEFAULT_RESOLUTION);
+			CountDownLatch done = new CountDownLatch(sessions);
+			Instant due = scheduler.getClock().instant();
+			for(int i = 0; i < sessions; i++)
+			{
+				scheduler.schedule(due, () ->
+				{
+					block(millis);
+					done.countDown();
+				});
+			}
+			result.startNanos = System.nanoTime() - start;
+			result.heapBytes = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+			long residentAfter = residentBytes();
+			result.residentBytes = residentBefore < 0 || residentAfter < 0 ? -1 : residentAfter - residentBefore;
+			done.await();
+			scheduler.shutdown();
+			result.totalNanos = System.nanoTime() - start;
+			result.peakThreads = threads.getPeakThreadCount();
+			return result;
+		}
+		try(DriverThreadScope scope = new DriverThreadScope(mode))
+		{
+			for(int i = 0; i < sessions; i++)
+			{
+				scope.fork(new SessionThread(millis));
+			}
+			result.startNanos = System.nanoTime() - start;
+			result.heapBytes = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+			long residentAfter = residentBytes();
+			result.residentBytes = residentBefore < 0 || residentAfter < 0 ? -1 : residentAfter - residentBefore;
+			scope.join();
+		}
+		result.totalNanos = System.nanoTime() - start;
+		result.peakThreads = threads.getPeakThreadCount();
+		return result;
+	}
+	
+	/**
+	 * Sleeps in short polls until the time is up or the thread is interrupted.
+	 * @param millis how long to block
+	 * @return false if it was interrupted
+	 */
+	private static boolean block(long millis)
+	{
+		try
+		{
+			for(long slept = 0; slept < millis; slept += POLL_MILLIS)
+			{
+				Thread.sleep(Math.min(POLL_MILLIS, millis - slept));
+			}
+			return true;
+		}
+		catch(InterruptedException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Gets the resident memory of this process, heap, native stacks and all.
+	 * @return resident bytes, or -1 if the runtime cannot tell
+	 */
+	private static long residentBytes()
+	{
+		try
+		{
+			for(String line : Files.readAllLines(PROCESS_STATUS))
+			{
+				// Such as "VmRSS:	  123456 kB".
+				if(line.startsWith("VmRSS:"))
+				{
+					String kilobytes = line.substring("VmRSS:".length()).trim();
+					return Long.parseLong(kilobytes.substring(0, kilobytes.indexOf(' '))) * 1024;
+				}
+			}
+		}
+		catch(IOException | RuntimeException e)
+		{
+		}
+		return -1;
+	}
+	
+	/**
+	 * What one round measured.
+	 * @author colli
+	 *
+	 */
+	private static class Result
+	{
+		/**
+		 * Time taken to start every session.
+		 */
+		private long startNanos;
+		
+		/**
+		 * Most platform threads alive at once.
+		 */
+		private int peakThreads;
+		
+		/**
+		 * Heap in use once every session started, over what was in use before.
+		 */
+		private long heapBytes;
+		
+		/**
+		 * Resident memory once every session started, over what was resident before, or -1.
+		 */
+		private long residentBytes;
+		
+		/**
+		 * Time taken for every session to finish.
+		 */
+		private long totalNanos;
+	}
+	
+	/**
+	 * A session that blocks without a browser.
+	 * @author colli
+	 *
+	 */
+	private static class SessionThread extends DriverThread<IdleUser>
+	{
+		/**
+		 * How long the session blocks.
+		 */
+		private final long millis;
+		
+		/**
+		 * Constructor.
+		 * @param millis how long the session blocks
+		 */
+		private SessionThread(long millis)
+		{
+			super(new IdleUser());
+			this.millis = millis;
+		}
+		
+		/**
+		 * Sleeps in short polls until the time is up or it is interrupted.
+		 */
+		@Override
+		public void run()
+		{
+			if(!block(millis))
+			{
+				reset();
+			}
+		}
+	}
+	
+	/**
+	 * A DriverUser that never opens a browser.
+	 * @author colli
+	 *
+	 */
+	private static class IdleUser extends DriverUser
+	{
+		/**
+		 * Constructor.
+		 */
+		private IdleUser()
+		{
+			super(BrowserType.HTMLUNIT);
+		}
+		
+		/**
+		 * Does nothing; there is no browser to stop.
+		 */
+		@Override
+		public void interrupt()
+		{
+		}
+	}
+}
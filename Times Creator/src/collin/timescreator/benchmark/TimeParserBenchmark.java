@@ -0,0 +1,292 @@
+package collin.timescreator.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import collin.timescreator.util.Pair;
+import collin.timescreator.util.TimeParser;
+
+/**
+ * Compares the TimeParser against the ways time text was read before it,
+ * which are copied here as they were: Shift's split and parseInt, the
+ * shift textfield filter's regexes, and the schedule file's line regex
+ * with String.format. Each case runs over the same mix of good and bad
+ * text, and prints nanoseconds per call and bytes allocated per call.
+ * <p>
+ * Usage: TimeParserBenchmark [calls per round] [rounds]
+ * @author colli
+ *
+ */
+public class TimeParserBenchmark
+{
+	/**
+	 * Time text as it is typed into a shift textfield, some of it bad.
+	 */
+	private static final String[] FIELD_TEXT = {
+			"9", "09", "9:", "9:3", "9:30", "13:05", "23:59", "0:00",
+			"24", "9:60", "123", "12:345", ":30", "7:5", "17", "1:2"
+	};
+	
+	/**
+	 * Lines of a schedule file.
+	 */
+	private static final String[] FILE_LINES = {
+			"08:00-09:30,13:00-14:00,16:00-17:00", "None", "10:00-12:00",
+			"09:00-10:00,11:00-12:00", "None", "14:30-18:45", "07:15-08:15,20:00-22:00"
+	};
+	
+	/**
+	 * The old line regex of a schedule file.
+	 */
+	private static final Pattern READ_LINE_PATTERN = Pattern.compile("(\\d{1,2}):?(\\d{1,2}?)-(\\d{1,2}):?(\\d{1,2}?)(?:$|,)");
+	
+	/**
+	 * The old filter regex for unwanted characters.
+	 */
+	private static final Pattern UNALLOWED_CHARACTERS = Pattern.compile("[^1234567890:]");
+	
+	/**
+	 * The old filter regex for a bad full time format.
+	 */
+	private static final Pattern TIME_FORMAT_BAD = Pattern.compile("\\d{2,}:\\d{3,}");
+	
+	/**
+	 * The old filter regex for a bad full time format.
+	 */
+	private static final Pattern TIME_FORMAT_BAD2 = Pattern.compile("\\d{3,}:\\d{2,}");
+	
+	/**
+	 * The old filter regex for a bad front time format.
+	 */
+	private static final Pattern FRONT_TIME_FORMAT_BAD = Pattern.compile("\\d{3,}");
+	
+	/**
+	 * The old filter regex for a bad back time format.
+	 */
+	private static final Pattern BACK_TIME_FORMAT_BAD = Pattern.compile(":\\d{3,}");
+	
+	/**
+	 * Keeps results alive so the calls are not optimized away.
+	 */
+	private static long sink;
+	
+	/**
+	 * Runs the benchmark.
+	 * @param args see the class description
+	 */
+	public static void main(String[] args)
+	{
+		int calls = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		Case[] cases = {
+				new Case("shift split/parseInt", i -> oldShiftMinute(FIELD_TEXT[i % 8])),
+				new Case("shift TimeParser", i -> TimeParser.parseMinute(FIELD_TEXT[i % 8])),
+				new Case("filter regexes", i -> oldFilter(FIELD_TEXT[i % FIELD_TEXT.length]) ? 1 : 0),
+				new Case("filter TimeParser", i -> newFilter(FIELD_TEXT[i % FIELD_TEXT.length]) ? 1 : 0),
+				new Case("file line regex/format", i -> oldFileLine(FILE_LINES[i % FILE_LINES.length]).size()),
+				new Case("file line TimeParser", i -> newFileLine(FILE_LINES[i % FILE_LINES.length]).size())
+		};
+		
+		System.out.println(calls + " calls per round, best of " + rounds + " rounds after a warm up");
+		System.out.println(String.format("%-24s %10s %12s", "case", "ns/call", "bytes/call"));
+		for(Case c : cases)
+		{
+			c.run(calls);
+			double bestNanos = Double.MAX_VALUE;
+			double bestBytes = Double.MAX_VALUE;
+			for(int r = 0; r < rounds; r++)
+			{
+				long allocated = allocatedBytes();
+				long start = System.nanoTime();
+				c.run(calls);
+				bestNanos = Math.min(bestNanos, (double) (System.nanoTime() - start) / calls);
+				bestBytes = Math.min(bestBytes, (double) (allocatedBytes() - allocated) / calls);
+			}
+			System.out.println(String.format("%-24s %10.1f %12.1f", c.name, bestNanos, bestBytes));
+		}
+		System.out.println("(" + sink + ")");
+	}
+	
+	/**
+	 * Gets how many bytes this thread has allocated, where the runtime can tell.
+	 * @return bytes allocated, or 0 if unknown
+	 */
+	private static long allocatedBytes()
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+	
+	/**
+	 * How Shift read a time before the TimeParser.
+	 * @param text the time text
+	 * @return the minute of the day
+	 */
+	private static int oldShiftMinute(String text)
+	{
+		String[] data = text.split(":");
+		if(data.length == 1)
+		{
+			return Integer.parseInt(data[0]) * 60;
+		}
+		return Integer.parseInt(data[0]) * 60 + Integer.parseInt(data[1]);
+	}
+	
+	/**
+	 * How the shift textfield filter checked text before the TimeParser.
+	 * The unwanted character regex is run on the whole text, where the
+	 * filter ran it on the typed text.
+	 * @param text the text of the field after the change
+	 * @return true if the change is let through
+	 */
+	private static boolean oldFilter(String text)
+	{
+		if(UNALLOWED_CHARACTERS.matcher(text).matches()
+				|| FRONT_TIME_FORMAT_BAD.matcher(text).matches()
+				|| BACK_TIME_FORMAT_BAD.matcher(text).matches()
+				|| TIME_FORMAT_BAD.matcher(text).matches()
+				|| TIME_FORMAT_BAD2.matcher(text).matches())
+		{
+			return false;
+		}
+		if(text.isEmpty())
+		{
+			return true;
+		}
+		String[] hourAndMinute = text.split(":");
+		if(hourAndMinute.length > 0)
+		{
+			if(hourAndMinute[0].equals(""))
+			{
+				return false;
+			}
+			int hour = Integer.valueOf(hourAndMinute[0]);
+			if(hour < 0 || hour > 23)
+			{
+				return false;
+			}
+		}
+		if(hourAndMinute.length > 1)
+		{
+			try
+			{
+				int minute = Integer.valueOf(hourAndMinute[1]);
+				return minute >= 0 && minute <= 59;
+			}
+			catch(NumberFormatException e)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * How the shift textfield filter checks text now.
+	 * @param text the text of the field after the change
+	 * @return true if the change is let through
+	 */
+	private static boolean newFilter(String text)
+	{
+		return text.isEmpty() || TimeParser.parseMinute(text) != TimeParser.ERROR;
+	}
+	
+	/**
+	 * How a schedule file line was read before the TimeParser.
+	 * @param line the line
+	 * @return the start and stop text of each shift
+	 */
+	private static List<Pair<String, String>> oldFileLine(String line)
+	{
+		Matcher match = READ_LINE_PATTERN.matcher(line);
+		List<Pair<String, String>> data = new ArrayList<Pair<String, String>>();
+		while(match.find())
+		{
+			String text1 = String.format("%s:%s", match.group(1), match.group(2));
+			String text2 = String.format("%s:%s", match.group(3), match.group(4));
+			data.add(new Pair<String, String>(text1, text2));
+		}
+		return data;
+	}
+	
+	/**
+	 * How a schedule file line is read now, as in MainController.
+	 * @param line the line
+	 * @return the start and stop text of each shift
+	 */
+	private static List<Pair<String, String>> newFileLine(String line)
+	{
+		List<Pair<String, String>> data = new ArrayList<Pair<String, String>>();
+		int position = 0;
+		while(position < line.length())
+		{
+			int next = line.indexOf(',', position);
+			int end = next < 0 ? line.length() : next;
+			int start = TimeParser.parse(line, position);
+			if(start != TimeParser.ERROR && TimeParser.endOf(start) < end && line.charAt(TimeParser.endOf(start)) == '-')
+			{
+				int stop = TimeParser.parse(line, TimeParser.endOf(start) + 1);
+				if(stop != TimeParser.ERROR && TimeParser.endOf(stop) == end)
+				{
+					data.add(new Pair<String, String>(line.substring(position, TimeParser.endOf(start)),
+							line.substring(TimeParser.endOf(start) + 1, end)));
+				}
+			}
+			position = end + 1;
+		}
+		return data;
+	}
+	
+	/**
+	 * One way of reading time text.
+	 * @author colli
+	 *
+	 */
+	private static class Case
+	{
+		/**
+		 * The name printed for the case.
+		 */
+		private final String name;
+		
+		/**
+		 * Reads the i-th text and returns something of the result.
+		 */
+		private final IntToLongFunction call;
+		
+		/**
+		 * Constructor.
+		 * @param name the name printed for the case
+		 * @param call reads the i-th text
+		 */
+		private Case(String name, IntToLongFunction call)
+		{
+			this.name = name;
+			this.call = call;
+		}
+		
+		/**
+		 * Calls the case over and over.
+		 * @param calls amount of calls
+		 */
+		private void run(int calls)
+		{
+			long total = 0;
+			for(int i = 0; i < calls; i++)
+			{
+				total += call.applyAsLong(i);
+			}
+			sink += total;
+		}
+	}
+}
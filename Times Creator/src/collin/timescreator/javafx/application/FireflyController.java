@@ -1,17 +1,16 @@
 package collin.timescreator.javafx.application;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 
 import collin.timescreator.selenium.firefly.FireflyThread;
 import collin.timescreator.selenium.utils.BrowserType;
 import collin.timescreator.selenium.utils.DeadDriverException;
+import collin.timescreator.selenium.utils.DriverEvent;
 import collin.timescreator.selenium.utils.DriverInterruptedException;
 import collin.timescreator.util.OSSettings;
 import collin.timescreator.util.Procedure;
-import collin.timescreator.util.Shift;
+import collin.timescreator.util.WeekSchedule;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -103,7 +102,7 @@ public class FireflyController
 	/**
 	 * The shift data.
 	 */
-	private HashMap<String, List<Shift>> data;
+	private WeekSchedule data;
 	
 	/**
 	 * The thread that will run the "firefly process"
@@ -116,7 +115,7 @@ public class FireflyController
 	 * @param nuid user's nuid.
 	 * @param password user's password.
 	 */
-	public FireflyController(HashMap<String, List<Shift>> data, int nuid, String password)
+	public FireflyController(WeekSchedule data, int nuid, String password)
 	{
 		givenNUID = nuid;
 		givenPassword = password;
@@ -184,10 +183,11 @@ public class FireflyController
 			button.setText("Stop");
 			fireflyThread = new FireflyThread(data, getNUID(), getPassword(),
 					BrowserType.browserNameToEnum(OSSettings.getDefaultBrowser()));
+			fireflyThread.getEventBus().subscribe(this::showEvent);
 			fireflyThread.setResetProcedure(THREAD_RESET_PROCEDURE);
 			fireflyThread.setDeadProcedure(DeadDriverException.deadDriverProcedure());
 			fireflyThread.setInterruptProcedure(DriverInterruptedException.driverInterruptedProcedure());
-			fireflyThread.start();
+			fireflyThread.start(Main.DRIVER_THREAD_MODE);
 		}
 		else
 		{
@@ -206,6 +206,33 @@ public class FireflyController
 		passwordField.getParent().setDisable(false);
 	}
 	
+	/**
+	 * Shows an event of the "firefly process" thread. Called on that
+	 * thread, so alerts are handed to the JavaFX thread without waiting.
+	 * @param event the event
+	 */
+	private void showEvent(DriverEvent event)
+	{
+		switch(event.getType())
+		{
+			case CREDENTIALS_CHECKED:
+				if(!event.getFlag())
+				{
+					Platform.runLater(() -> {
+						Main.alert("Invalid Credentials", AlertType.ERROR);
+					});
+				}
+				break;
+			case DRIVERS_MISSING:
+				Platform.runLater(() -> {
+					Main.alert("WebDrivers do not exist.\nPlease restart the program to reinstall drivers.", AlertType.ERROR);
+				});
+				break;
+			default:
+				break;
+		}
+	}
+	
 	/**
 	 * Interrupts the "firefly process" thread.
 	 */
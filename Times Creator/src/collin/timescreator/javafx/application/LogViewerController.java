@@ -0,0 +1,238 @@
+package collin.timescreator.javafx.application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import collin.timescreator.util.Log;
+import collin.timescreator.util.LogLevel;
+import collin.timescreator.util.LogRing;
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * The class responsible for controlling the log viewer scene. Logs are
+ * copied out of a LogRing once per frame and added to the list in a single
+ * change, and the list only ever makes cells for the rows on screen, so the
+ * window keeps up no matter how many logs come in.
+ * @author colli
+ *
+ */
+public class LogViewerController
+{
+	/**
+	 * The most logs added to the list in a single frame.
+	 */
+	private static final int MAX_LOGS_PER_FRAME = 500;
+	
+	/**
+	 * The height of every row. A fixed height lets the list skip measuring rows.
+	 */
+	private static final double ROW_HEIGHT = 24.0;
+	
+	/**
+	 * The CSS class of a row, by log level ordinal.
+	 */
+	private static final String[] LEVEL_CLASSES = new String[LogLevel.values().length];
+	
+	static
+	{
+		for(LogLevel level : LogLevel.values())
+		{
+			LEVEL_CLASSES[level.ordinal()] = "log_" + level.toString().toLowerCase();
+		}
+	}
+	
+	/**
+	 * The list showing the logs.
+	 */
+	@FXML
+	private ListView<Log> logList;
+	
+	/**
+	 * The choice of the lowest log level shown.
+	 */
+	@FXML
+	private ChoiceBox<LogLevel> levelChoice;
+	
+	/**
+	 * Whether the list scrolls to new logs as they come in.
+	 */
+	@FXML
+	private CheckBox followCheck;
+	
+	/**
+	 * Where the logs are read from.
+	 */
+	private final LogRing ring;
+	
+	/**
+	 * Every log read so far, up to the capacity of the ring.
+	 */
+	private final ObservableList<Log> logs;
+	
+	/**
+	 * The logs at or above the chosen level.
+	 */
+	private final FilteredList<Log> shownLogs;
+	
+	/**
+	 * Logs read from the ring during the current frame.
+	 */
+	private final List<Log> incoming;
+	
+	/**
+	 * The position in the ring of the next log to read.
+	 */
+	private long position;
+	
+	/**
+	 * Reads new logs once per frame.
+	 */
+	private final AnimationTimer timer = new AnimationTimer() {
+		/**
+		 * Adds any new logs to the list.
+		 * @param now the time of the current frame
+		 */
+		@Override
+		public void handle(long now)
+		{
+			readLogs();
+		}
+	};
+	
+	/**
+	 * Constructs a LogViewerController that shows the logs of the given ring.
+	 * @param ring where to read logs from
+	 * @throws NullPointerException if the ring is null
+	 */
+	public LogViewerController(LogRing ring) throws NullPointerException
+	{
+		if(ring == null)
+			throw new NullPointerException();
+		this.ring = ring;
+		logs = FXCollections.observableArrayList();
+		shownLogs = logs.filtered(l -> true);
+		incoming = new ArrayList<Log>(MAX_LOGS_PER_FRAME);
+		position = ring.getOldest();
+	}
+	
+	/**
+	 * Sets up the level choice and the list, and starts reading logs.
+	 */
+	@FXML
+	public void initialize()
+	{
+		levelChoice.getItems().addAll(LogLevel.values());
+		levelChoice.setValue(LogLevel.INFO);
+		levelChoice.valueProperty().addListener((observable, oldLevel, newLevel) ->
+		{
+			int lowest = newLevel == null ? 0 : newLevel.ordinal();
+			shownLogs.setPredicate(l -> l.getLogLevel().ordinal() >= lowest);
+			scrollToEnd();
+		});
+		
+		logList.setFixedCellSize(ROW_HEIGHT);
+		logList.setCellFactory(list -> new LogCell());
+		logList.setItems(shownLogs);
+		timer.start();
+	}
+	
+	/**
+	 * Stops reading logs. Should be called when the window closes.
+	 */
+	public void stop()
+	{
+		timer.stop();
+	}
+	
+	/**
+	 * Moves new logs from the ring into the list, dropping the oldest
+	 * rows once there are more than the ring holds.
+	 */
+	private void readLogs()
+	{
+		incoming.clear();
+		position = ring.read(position, incoming, MAX_LOGS_PER_FRAME);
+		if(incoming.isEmpty())
+		{
+			return;
+		}
+		
+		int excess = logs.size() + incoming.size() - ring.getCapacity();
+		if(excess > 0)
+		{
+			logs.remove(0, Math.min(excess, logs.size()));
+		}
+		logs.addAll(incoming);
+		incoming.clear();
+		if(followCheck.isSelected())
+		{
+			scrollToEnd();
+		}
+	}
+	
+	/**
+	 * Scrolls the list to the newest log shown.
+	 */
+	private void scrollToEnd()
+	{
+		if(!shownLogs.isEmpty())
+		{
+			logList.scrollTo(shownLogs.size() - 1);
+		}
+	}
+	
+	/**
+	 * A row of the log list. Shows the time, level and first line of a log,
+	 * styled by its level.
+	 * @author colli
+	 *
+	 */
+	private static class LogCell extends ListCell<Log>
+	{
+		/**
+		 * Reusable text for the row.
+		 */
+		private final StringBuilder text = new StringBuilder();
+		
+		/**
+		 * Shows the given log, or nothing for an empty row.
+		 * @param item the log of this row
+		 * @param empty true if this row has no log
+		 */
+		@Override
+		protected void updateItem(Log item, boolean empty)
+		{
+			super.updateItem(item, empty);
+			getStyleClass().removeAll(LEVEL_CLASSES);
+			if(empty || item == null)
+			{
+				setText(null);
+				return;
+			}
+			
+			String message = String.valueOf(item.getMessage());
+			int newLine = message.indexOf('\n');
+			text.setLength(0);
+			text.append(item.getTime()).append(" [").append(item.getLogLevel()).append("] ")
+				.append(message, 0, newLine < 0 ? message.length() : newLine);
+			if(newLine >= 0)
+			{
+				text.append(" ...");
+			}
+			if(item.getOccurrences() > 1)
+			{
+				text.append(" (x").append(item.getOccurrences()).append(')');
+			}
+			setText(text.toString());
+			getStyleClass().add(LEVEL_CLASSES[item.getLogLevel().ordinal()]);
+		}
+	}
+}
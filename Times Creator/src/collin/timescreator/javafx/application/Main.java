@@ -1,14 +1,30 @@
 package collin.timescreator.javafx.application;
 	
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 import collin.timescreator.javafx.utils.SceneUtils;
+import collin.timescreator.selenium.tutorlogin.Tutor;
+import collin.timescreator.selenium.utils.AdvancedActions;
+import collin.timescreator.selenium.utils.DriverThreadMode;
+import collin.timescreator.util.JsonLinesLogFormatter;
+import collin.timescreator.util.Log;
+import collin.timescreator.util.LogJournal;
 import collin.timescreator.util.LogLevel;
+import collin.timescreator.util.LogRing;
 import collin.timescreator.util.LoggingThread;
+import collin.timescreator.util.RollingFileLogSink;
+import collin.timescreator.util.ServerClock;
+import collin.timescreator.util.ShiftScheduler;
+import collin.timescreator.util.TextLogFormatter;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
@@ -47,6 +63,11 @@ public class Main extends Application
 	 */
 	public static final String TUTORIAL_FXML = "/collin/timescreator/resources/fxml/Tutorials.fxml";
 	
+	/**
+	 * FXML file for the log viewer window.
+	 */
+	public static final String LOG_VIEWER_FXML = "/collin/timescreator/resources/fxml/LogViewer.fxml";
+	
 	/**
 	 * If a non-user error occurs, this will be the default error message shown to the user.
 	 */
@@ -63,6 +84,20 @@ public class Main extends Application
 	 */
 	public static final boolean DEBUG_MODE = true;
 	
+	/**
+	 * A flag to set whether every browser action should be traced into a
+	 * LogJournal. Tracing is cheap enough to leave on, but the journal
+	 * takes up disk space that most users do not need.
+	 */
+	public static final boolean TRACE_MODE = false;
+	
+	/**
+	 * How tutor login and firefly threads, and the shift transitions that
+	 * sign tutors in and out, are run. VIRTUAL only differs from PLATFORM
+	 * on runtimes that have virtual threads.
+	 */
+	public static final DriverThreadMode DRIVER_THREAD_MODE = DriverThreadMode.PLATFORM;
+	
 	/**
 	 * The root directory for installing the webdrivers.
 	 */
@@ -83,11 +118,56 @@ public class Main extends Application
 	 */
 	public static final Path OPERA_WEBDRIVER_PATH = Paths.get(WEBDRIVER_ROOT_DIRECTORY.toString(), "operadriver.exe");
 	
+	/**
+	 * The directory that log files are written to.
+	 */
+	public static final Path LOG_DIRECTORY = Paths.get(WEBDRIVER_ROOT_DIRECTORY.toString(), "logs");
+	
+	/**
+	 * The start of every log file name.
+	 */
+	public static final String LOG_FILE_NAME = "timescreator";
+	
+	/**
+	 * The directory the trace journal is written to when TRACE_MODE is on.
+	 */
+	public static final Path JOURNAL_DIRECTORY = Paths.get(LOG_DIRECTORY.toString(), "journal");
+	
+	/**
+	 * The directory each tutor's "tutor login" checkpoint is kept in.
+	 */
+	public static final Path CHECKPOINT_DIRECTORY = Paths.get(WEBDRIVER_ROOT_DIRECTORY.toString(), "checkpoints");
+	
 	/**
 	 * A thread to manage logging.
 	 */
 	public static final LoggingThread loggingThread = new LoggingThread();
 	
+	/**
+	 * The most recent logs, for the log viewer window.
+	 */
+	public static final LogRing recentLogs = new LogRing(4096);
+	
+	/**
+	 * How often the tutoring portal's clock is checked.
+	 */
+	public static final Duration PORTAL_CLOCK_PERIOD = Duration.ofMinutes(10);
+	
+	/**
+	 * This machine's clock corrected to the tutoring portal's clock.
+	 */
+	public static final ServerClock portalClock = new ServerClock(Clock.systemDefaultZone());
+	
+	/**
+	 * Runs the shift starts and stops of every tutor by the portal's clock,
+	 * to the second so they can be started early by how long they take.
+	 * Each transition gets a thread of its own, in the driver thread mode,
+	 * so a slot with many tutors does not leave them waiting on each
+	 * other's browsers.
+	 */
+	public static final ShiftScheduler shiftScheduler = new ShiftScheduler(portalClock,
+			DRIVER_THREAD_MODE.dispatcher("Shift Worker"), Duration.ofSeconds(1));
+	
 	/**
 	 * The location of the Firefox Geckodriver.
 	 */
@@ -111,8 +191,23 @@ public class Main extends Application
 	@Override
 	public void start(Stage primaryStage)
 	{
+		loggingThread.addSink(new RollingFileLogSink(LOG_DIRECTORY, LOG_FILE_NAME, new TextLogFormatter()));
+		loggingThread.addSink(new RollingFileLogSink(LOG_DIRECTORY, LOG_FILE_NAME, ".jsonl", new JsonLinesLogFormatter()));
+		loggingThread.addSink(recentLogs);
 		loggingThread.start();
+		if(TRACE_MODE)
+		{
+			startTracing();
+		}
 		setup();
+		try
+		{
+			portalClock.startProbing(new URL(Tutor.TUTOR_URL), PORTAL_CLOCK_PERIOD);
+		}
+		catch(MalformedURLException e)
+		{
+			log(e::getMessage, LogLevel.WARNING);
+		}
 		MainController controller = new MainController(primaryStage);
 		Scene mainScene;
 		try
@@ -123,7 +218,7 @@ public class Main extends Application
 		{
 			if(DEBUG_MODE)
 			{
-				log(e.getMessage(), LogLevel.DANGER);
+				log(e::getMessage, LogLevel.DANGER);
 			}
 			else
 			{
@@ -202,7 +297,25 @@ public class Main extends Application
 	}
 	
 	/**
-	 * Adds to the logging system a log to eventually print to stdout.
+	 * Opens the trace journal, hands it to AdvancedActions for tracing and
+	 * to the logging thread so ordinary logs end up in it as well.
+	 */
+	private static void startTracing()
+	{
+		try
+		{
+			LogJournal journal = new LogJournal(JOURNAL_DIRECTORY);
+			AdvancedActions.setTraceJournal(journal);
+			loggingThread.addSink(journal);
+		}
+		catch(IOException e)
+		{
+			log(LogLevel.DANGER, "Could not open the trace journal: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Adds to the logging system a log to eventually write to stdout and the log files.
 	 * @param message the message to log
 	 * @param level the level of concern
 	 */
@@ -210,4 +323,79 @@ public class Main extends Application
 	{
 		loggingThread.getLogger().log(message, level);
 	}
+	
+	/**
+	 * Adds an already built log, such as one carrying fields, to the logging system.
+	 * @param l the log
+	 */
+	public static void log(Log l)
+	{
+		loggingThread.getLogger().log(l);
+	}
+	
+	/**
+	 * Adds a log whose message is only built if its level is being logged.
+	 * @param message supplies the message to log
+	 * @param level the level of concern
+	 */
+	public static void log(Supplier<String> message, LogLevel level)
+	{
+		loggingThread.getLogger().log(message, level);
+	}
+	
+	/**
+	 * Adds a log built from a template, with its {} replaced by the argument.
+	 * Nothing is built if the level is not being logged.
+	 * @param level the level of concern
+	 * @param template the message template
+	 * @param arg the argument
+	 */
+	public static void log(LogLevel level, String template, Object arg)
+	{
+		loggingThread.getLogger().log(level, template, arg);
+	}
+	
+	/**
+	 * Adds a log built from a template, with its {} replaced by the arguments.
+	 * Nothing is built if the level is not being logged.
+	 * @param level the level of concern
+	 * @param template the message template
+	 * @param arg1 the first argument
+	 * @param arg2 the second argument
+	 */
+	public static void log(LogLevel level, String template, Object arg1, Object arg2)
+	{
+		loggingThread.getLogger().log(level, template, arg1, arg2);
+	}
+	
+	/**
+	 * Adds a log built from a template, with its {} replaced by the arguments.
+	 * Nothing is built if the level is not being logged.
+	 * @param level the level of concern
+	 * @param template the message template
+	 * @param args the arguments
+	 */
+	public static void log(LogLevel level, String template, Object... args)
+	{
+		loggingThread.getLogger().log(level, template, args);
+	}
+	
+	/**
+	 * Sets the lowest level of concern that gets logged.
+	 * @param level the level of concern
+	 */
+	public static void setLogLevel(LogLevel level)
+	{
+		loggingThread.getLogger().setMinimumLevel(level);
+	}
+	
+	/**
+	 * Checks if logs of the given level of concern are being logged.
+	 * @param level the level of concern
+	 * @return true if they are logged, false otherwise
+	 */
+	public static boolean isLoggable(LogLevel level)
+	{
+		return loggingThread.getLogger().isLoggable(level);
+	}
 }
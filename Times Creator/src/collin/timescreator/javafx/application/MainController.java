@@ -2,20 +2,21 @@ package collin.timescreator.javafx.application;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.DateTimeException;
-import java.time.LocalTime;
+import java.time.DayOfWeek;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import collin.timescreator.javafx.utils.SceneUtils;
 import collin.timescreator.javafx.utils.ShiftPane;
 import collin.timescreator.util.Pair;
-import collin.timescreator.util.Shift;
+import collin.timescreator.util.RosterReader;
+import collin.timescreator.util.RosterWriter;
+import collin.timescreator.util.ScheduleConflict;
+import collin.timescreator.util.ScheduleValidator;
+import collin.timescreator.util.TimeParser;
+import collin.timescreator.util.WeekSchedule;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.Scene;
@@ -56,11 +57,6 @@ public class MainController
 	 */
 	private static final int NUMBER_OF_GRIDPANES = 7;
 	
-	/**
-	 * A regex pattern that helps parse text when reading in a file.
-	 */
-	private static final Pattern READ_LINE_PATTERN = Pattern.compile("(\\d{1,2}):?(\\d{1,2}?)-(\\d{1,2}):?(\\d{1,2}?)(?:$|,)");
-	
 	/**
 	 * Default alert message when a shift's start if after or equal to
 	 * its end time.
@@ -72,6 +68,16 @@ public class MainController
 	 */
 	private static final String NO_TIMES_ENTERED = "No times entered";
 	
+	/**
+	 * Who shifts are saved under in a roster file when no netID was entered.
+	 */
+	private static final String DEFAULT_ROSTER_TUTOR = "tutor";
+	
+	/**
+	 * The most rows that could not be read listed in the warning when loading a roster file.
+	 */
+	private static final int MAX_LISTED_ROSTER_ERRORS = 10;
+	
 	/**
 	 * Default alert message when two or more shifts overlap.
 	 */
@@ -119,6 +125,16 @@ public class MainController
 	 */
 	private Stage tutorialStage;
 	
+	/**
+	 * Stage for the log viewer scene.
+	 */
+	private Stage logViewerStage;
+	
+	/**
+	 * Controller of the log viewer scene currently shown, or null if none.
+	 */
+	private LogViewerController logViewerController;
+	
 	/**
 	 * A string to keep hold of the email to load it back 
 	 * when the "tutor login" scene comes back.
@@ -183,6 +199,12 @@ public class MainController
 					tutorialStage.getOnCloseRequest().handle(null);
 				tutorialStage.close();
 			}
+			if(logViewerStage != null)
+			{
+				if(logViewerStage.getOnCloseRequest() != null)
+					logViewerStage.getOnCloseRequest().handle(null);
+				logViewerStage.close();
+			}
 		});
 		tutorEmail = "";
 		tutorNetID = "";
@@ -204,6 +226,16 @@ public class MainController
 		tutorialStage.setTitle("Tutorial");
 		tutorialStage.setResizable(false);
 		
+		logViewerStage = new Stage();
+		logViewerStage.setTitle("Logs");
+		logViewerStage.setOnCloseRequest(e -> {
+			if(logViewerController != null)
+			{
+				logViewerController.stop();
+				logViewerController = null;
+			}
+		});
+		
 		fileChooser.getExtensionFilters().addAll(filter);
 		
 		fireflyNUID = -1;
@@ -242,50 +274,23 @@ public class MainController
 	@FXML
 	public void saveFile(ActionEvent event)
 	{
-		String alertMessage = ShiftCompare.toAlertString(correctShifts());
-		if(alertMessage != null)
+		WeekSchedule shifts;
+		try
 		{
-			Main.alert(alertMessage, AlertType.ERROR);
+			shifts = createShifts();
+		}
+		catch(DateTimeException e)
+		{
+			Main.alert("Invalid Time", AlertType.ERROR);
 			return;
 		}
-		String output = "";
-		
-		int counter = 1;
-		boolean isEmpty = true;
-		for(ShiftPane pane : panes)
+		String alertMessage = correctShifts(shifts);
+		if(alertMessage != null)
 		{
-			List<Shift> shifts;
-			try
-			{
-				shifts = pane.getShifts();
-			}
-			catch(DateTimeException e)
-			{
-				Main.alert("Invalid Time", AlertType.ERROR);
-				return;
-			}
-			if(!shifts.isEmpty())
-			{
-				isEmpty = false;
-			}
-			else
-			{
-				output += "None";
-			}
-			for(int i = 0; i < shifts.size(); i++)
-			{
-				if(i != 0)
-					output += ",";
-				output += shifts.get(i);
-			}
-			if(counter != NUMBER_OF_GRIDPANES)
-			{
-				output += "\n";
-			}
-			counter++;
+			Main.alert(alertMessage, AlertType.ERROR);
+			return;
 		}
-		
-		if(isEmpty)
+		if(shifts.isEmpty())
 		{
 			Main.alert(NO_TIMES_ENTERED, AlertType.ERROR);
 			return;
@@ -293,11 +298,12 @@ public class MainController
 		
 		fileChooser.setTitle("Save Schedule File");
 		File outputFile = fileChooser.showSaveDialog(this.stage);
+		if(outputFile == null)
+			return;
 		
 		try
 		{
-			if(outputFile != null)
-				Files.write(Paths.get(outputFile.getAbsolutePath()), output.getBytes());
+			RosterWriter.replace(outputFile.toPath(), getRosterTutor(), shifts);
 		}
 		catch (IOException e)
 		{
@@ -305,6 +311,16 @@ public class MainController
 		}
 	}
 	
+	/**
+	 * Gets who the shifts on the main window are saved under in a roster file.
+	 * @return the netID last used for the "tutor login" process, or DEFAULT_ROSTER_TUTOR
+	 */
+	private String getRosterTutor()
+	{
+		String tutor = tutorNetID == null ? null : tutorNetID.trim();
+		return RosterWriter.isValidTutor(tutor) ? tutor : DEFAULT_ROSTER_TUTOR;
+	}
+	
 	/**
 	 * The load feature implements this onAction method. 
 	 * It will load in information and fill the textfields 
@@ -343,14 +359,23 @@ public class MainController
 	@FXML
 	private void tutorLoginMenu(ActionEvent event) throws IOException
 	{
-		String alertMessage = ShiftCompare.toAlertString(correctShifts());
+		WeekSchedule shifts;
+		try
+		{
+			shifts = createShifts();
+		}
+		catch(DateTimeException e)
+		{
+			Main.alert("Invalid Time", AlertType.ERROR);
+			return;
+		}
+		String alertMessage = correctShifts(shifts);
 		if(alertMessage != null)
 		{
 			Main.alert(alertMessage, AlertType.ERROR);
 			return;
 		}
-		var shifts = createShifts();
-		if(isShiftsEmpty(shifts))
+		if(shifts.isEmpty())
 		{
 			Main.alert(NO_TIMES_ENTERED, AlertType.ERROR);
 			return;
@@ -363,7 +388,7 @@ public class MainController
 		tutorLoginStage.setScene(scene);
 		tutorLoginStage.show();
 		tutorLoginStage.setOnCloseRequest(e -> {
-			controller.stopThread();
+			controller.close();
 			window.setDisable(false);
 			tutorEmail = controller.getEmail();
 			tutorNetID = controller.getNetID();
@@ -394,14 +419,23 @@ public class MainController
 	@FXML
 	private void fireflyMenu(ActionEvent event) throws IOException
 	{
-		String alertMessage = ShiftCompare.toAlertString(correctShifts());
+		WeekSchedule shifts;
+		try
+		{
+			shifts = createShifts();
+		}
+		catch(DateTimeException e)
+		{
+			Main.alert("Invalid Time", AlertType.ERROR);
+			return;
+		}
+		String alertMessage = correctShifts(shifts);
 		if(alertMessage != null)
 		{
 			Main.alert(alertMessage, AlertType.ERROR);
 			return;
 		}
-		var shifts = createShifts();
-		if(isShiftsEmpty(shifts))
+		if(shifts.isEmpty())
 		{
 			Main.alert(NO_TIMES_ENTERED, AlertType.ERROR);
 			return;
@@ -435,6 +469,25 @@ public class MainController
 		tutorialStage.show();
 	}
 	
+	/**
+	 * The log viewer feature implements this onAction method.
+	 * It will show the most recent logs as they come in.
+	 * @param event An ActionEvent for a node
+	 * @throws IOException if it cannot find the LogViewer.fxml resource
+	 */
+	@FXML
+	private void logViewerMenu(ActionEvent event) throws IOException
+	{
+		if(logViewerController != null)
+		{
+			logViewerController.stop();
+		}
+		logViewerController = new LogViewerController(Main.recentLogs);
+		Scene scene = SceneUtils.loadScene(this.getClass(), logViewerController, Main.LOG_VIEWER_FXML, Main.MAIN_CSS);
+		logViewerStage.setScene(scene);
+		logViewerStage.show();
+	}
+	
 	/**
 	 * Sets the current controller's stage.
 	 * @param stage A stage for this controller.
@@ -445,142 +498,110 @@ public class MainController
 	}
 	
 	/**
-	 * Reads data from a file and fills the textfields with 
-	 * that data. Will add or remove rows to fill the correct 
-	 * amount of data.
-	 * @param file File to read shift data from.
+	 * Fills the shift textfields from a roster file. The shifts of the
+	 * tutor with the netID last used for the "tutor login" process are
+	 * loaded, or the first tutor's if that netID is not in the file.
+	 * Rows that cannot be read are skipped, and every tutor's shifts are
+	 * checked for conflicts; both are listed in a warning.
+	 * @param file the roster file
 	 */
 	private void fillShifts(File file)
 	{
 		if(file == null)
 			return;
 		
-		List<String> fileLines;
+		StringBuilder problems = new StringBuilder();
+		int[] listed = {0};
+		Map<String, WeekSchedule> roster;
 		try
 		{
-			fileLines = Files.readAllLines(Paths.get(file.getAbsolutePath()));
+			roster = RosterReader.readAll(file.toPath(), (line, text, message) ->
+			{
+				if(listed[0]++ < MAX_LISTED_ROSTER_ERRORS)
+				{
+					problems.append('\n').append("Line ").append(line).append(": ").append(message);
+				}
+			});
 		}
 		catch (IOException e)
 		{
+			Main.alert("File could not be read", AlertType.ERROR);
 			return;
 		}
+		int errorCount = listed[0];
 		
-		if(fileLines.size() != NUMBER_OF_GRIDPANES)
-			return;
-		
-		for(int i = 0; i < fileLines.size(); i++)
+		List<String> tutors = new ArrayList<String>(roster.keySet());
+		List<ScheduleConflict> conflicts = ScheduleValidator.validateAll(new ArrayList<WeekSchedule>(roster.values()));
+		for(ScheduleConflict conflict : conflicts)
 		{
-			panes.get(i).clearTextFields();
-			Matcher match = READ_LINE_PATTERN.matcher(fileLines.get(i));
-			List<Pair<String, String>> data = new ArrayList<Pair<String, String>>();
-			while(match.find())
+			if(listed[0]++ < MAX_LISTED_ROSTER_ERRORS)
 			{
-				String text1 = String.format("%s:%s", match.group(1), match.group(2));
-				String text2 = String.format("%s:%s", match.group(3), match.group(4));
-				data.add(new Pair<String, String>(text1, text2));
+				String tutor = tutors.get(conflict.getTutor());
+				problems.append('\n').append(conflict.toString(tutor.isEmpty() ? null : tutor));
 			}
-			panes.get(i).setTextFields(data);
 		}
-	}
-	
-	/**
-	 * Converts data from the shift textfields to a map that links 
-	 * a day of the week with a list of shifts.
-	 * @return map that links a day of the week with a list of shifts.
-	 */
-	private HashMap<String, List<Shift>> createShifts()
-	{
-		HashMap<String, List<Shift>> shifts = new HashMap<String, List<Shift>>(NUMBER_OF_GRIDPANES);
 		
-		for(ShiftPane pane : panes)
+		if(errorCount > 0 || !conflicts.isEmpty())
 		{
-			shifts.put(pane.getDay(), pane.getShifts());
+			Main.alert(errorCount + " rows could not be read and " + conflicts.size() + " shift conflicts were found" + problems, AlertType.WARNING);
 		}
+		if(roster.isEmpty())
+			return;
 		
-		return shifts;
-	}
-	
-	/**
-	 * Checks if the current shifts have start times before end times
-	 * and that there is no overlap between shifts.
-	 * @return a result from comparing shifts
-	 */
-	private ShiftCompare correctShifts()
-	{
+		WeekSchedule shifts = roster.containsKey(getRosterTutor()) ? roster.get(getRosterTutor()) : roster.values().iterator().next();
 		for(ShiftPane pane : panes)
 		{
-			LocalTime lastStop = null;
-			int counter = 1;
-			for(Shift shift : pane.getShifts())
+			pane.clearTextFields();
+			DayOfWeek day = pane.getDayOfWeek();
+			if(day == null)
+				continue;
+			List<Pair<String, String>> data = new ArrayList<Pair<String, String>>(shifts.getShiftCount(day));
+			for(int i = 0; i < shifts.getShiftCount(day); i++)
 			{
-				if(shift.getStart().isAfter(shift.getStop()) || shift.getStart().equals(shift.getStop()))
-					return ShiftCompare.END_BEFORE_START;
-				if(counter > 1)
-				{
-					if(lastStop.isAfter(shift.getStart()) || lastStop.equals(shift.getStart()))
-						return ShiftCompare.SHIFT_END_OVERLAP;
-				}
-				counter++;
-				lastStop = shift.getStop();
+				data.add(new Pair<String, String>(TimeParser.format(shifts.getStartMinute(day, i)),
+						TimeParser.format(shifts.getStopMinute(day, i))));
 			}
-			
+			pane.setTextFields(data);
 		}
-		
-		return ShiftCompare.CORRECT;
 	}
 	
 	/**
-	 * Checks whether all the current shifts are empty or not.
-	 * @param shifts a hashmap whose keys are days of the week and 
-	 * values are a list of shifts for that day
-	 * @return true if all shifts are empty, false otherwise
+	 * Converts data from the shift textfields to a schedule
+	 * of each day of the week's shifts.
+	 * @return the week of shifts
 	 */
-	private boolean isShiftsEmpty(HashMap<String, List<Shift>> shifts)
+	private WeekSchedule createShifts()
 	{
-		for(String key : shifts.keySet())
+		WeekSchedule.Builder shifts = new WeekSchedule.Builder();
+		
+		for(ShiftPane pane : panes)
 		{
-			if(!shifts.get(key).isEmpty())
-			{
-				return false;
-			}
+			shifts.addAll(pane.getDayOfWeek(), pane.getShifts());
 		}
 		
-		return true;
+		return shifts.build();
 	}
 	
 	/**
-	 * Constants that illistrate the outcomes of
-	 * comparing shifts.
-	 * @author colli
-	 *
+	 * Checks that the shifts of each day have start times before end
+	 * times and that no two shifts overlap or touch, in any order.
+	 * @param shifts the week of shifts
+	 * @return an alert message listing every conflict, or null if correct
 	 */
-	private enum ShiftCompare
+	private String correctShifts(WeekSchedule shifts)
 	{
-		CORRECT, END_BEFORE_START, SHIFT_END_OVERLAP;
+		List<ScheduleConflict> conflicts = ScheduleValidator.validate(shifts);
+		if(conflicts.isEmpty())
+		{
+			return null;
+		}
 		
-		/**
-		 * Converts a ShiftCompare result to its equivalent
-		 * alert message, or null if correct.
-		 * @param compareValue a result from comparing all shifts
-		 * from a certain day
-		 * @return an alert message, or null if correct
-		 */
-		public static String toAlertString(ShiftCompare compareValue)
+		StringBuilder alert = new StringBuilder(
+				conflicts.get(0).getType() == ScheduleConflict.Type.END_BEFORE_START ? INVALID_START_AND_END_TIMES : OVERLAP_TIMES);
+		for(ScheduleConflict conflict : conflicts)
 		{
-			String alert = null;
-			switch(compareValue)
-			{
-				case END_BEFORE_START:
-					alert = INVALID_START_AND_END_TIMES;
-					break;
-				case SHIFT_END_OVERLAP:
-					alert = OVERLAP_TIMES;
-					break;
-				case CORRECT:
-					break;
-			}
-			
-			return alert;
+			alert.append('\n').append(conflict);
 		}
+		return alert.toString();
 	}
 }
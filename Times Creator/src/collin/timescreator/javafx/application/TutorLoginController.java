@@ -1,15 +1,15 @@
 package collin.timescreator.javafx.application;
 
-import java.util.HashMap;
-import java.util.List;
-
+import collin.timescreator.javafx.utils.StatusConsole;
 import collin.timescreator.selenium.tutorlogin.TutorTimedLoginThread;
 import collin.timescreator.selenium.utils.BrowserType;
 import collin.timescreator.selenium.utils.DeadDriverException;
+import collin.timescreator.selenium.utils.DriverEvent;
 import collin.timescreator.selenium.utils.DriverInterruptedException;
 import collin.timescreator.util.OSSettings;
 import collin.timescreator.util.Procedure;
-import collin.timescreator.util.Shift;
+import collin.timescreator.util.WeekSchedule;
+import collin.timescreator.util.WeeklyTransitions;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -45,6 +45,11 @@ public class TutorLoginController
 	@FXML 
 	private TextArea loginOutput;
 	
+	/**
+	 * Shows the status lines of the "tutor login" thread in loginOutput.
+	 */
+	private StatusConsole status;
+	
 	/**
 	 * Textfield for the user's email address.
 	 */
@@ -70,9 +75,9 @@ public class TutorLoginController
 	private Button startLoginButton;
 	
 	/**
-	 * User's work shift data.
+	 * When the user starts and stops working each week.
 	 */
-	private HashMap<String, List<Shift>> dayData;
+	private final WeeklyTransitions week;
 	
 	/**
 	 * Thread responsible for the "tutor login" process.
@@ -99,7 +104,7 @@ public class TutorLoginController
 	 * to an empty string.
 	 * @param data User's shift data.
 	 */
-	public TutorLoginController(HashMap<String, List<Shift>> data)
+	public TutorLoginController(WeekSchedule data)
 	{
 		this(data, "", "", "");
 	}
@@ -111,10 +116,10 @@ public class TutorLoginController
 	 * @param netID User's netID.
 	 * @param password User's password.
 	 */
-	public TutorLoginController(HashMap<String, List<Shift>> data,
+	public TutorLoginController(WeekSchedule data,
 			String email, String netID, String password)
 	{
-		dayData = data;
+		week = WeeklyTransitions.compile(data);
 		givenEmail = email;
 		givenNetID = netID;
 		givenPassword = password;
@@ -159,6 +164,8 @@ public class TutorLoginController
 		emailField.setText(givenEmail);
 		netIDField.setText(givenNetID);
 		passwordField.setText(givenPassword);
+		status = new StatusConsole(loginOutput);
+		status.start();
 	}
 	
 	/**
@@ -208,31 +215,82 @@ public class TutorLoginController
 			Main.alert(errorMessage, AlertType.ERROR);
 			return;
 		}
-		loginOutput.clear();
+		status.clear();
 		emailField.getParent().setDisable(true);
 		button.setText("Stop");
-		tutorThread = new TutorTimedLoginThread(dayData, 
-				loginOutput, emailField.getText(), 
+		tutorThread = new TutorTimedLoginThread(week, 
+				emailField.getText(), 
 				netIDField.getText(), passwordField.getText(), 
-				BrowserType.browserNameToEnum(OSSettings.getDefaultBrowser()));
+				BrowserType.browserNameToEnum(OSSettings.getDefaultBrowser()), Main.shiftScheduler);
+		tutorThread.setCheckpointDirectory(Main.CHECKPOINT_DIRECTORY);
+		tutorThread.getEventBus().subscribe(this::showEvent);
 		tutorThread.setResetProcedure(THREAD_RESET_PROCEDURE);
 		tutorThread.setDeadProcedure(DeadDriverException.deadDriverProcedure());
 		tutorThread.setInterruptProcedure(DriverInterruptedException.driverInterruptedProcedure());
-		tutorThread.start();
+		tutorThread.start(Main.DRIVER_THREAD_MODE);
 	}
 	
 	/**
-	 * Interrupts the "login tutor" thread.
+	 * Shows an event of the "tutor login" thread. Called on that thread,
+	 * so it only queues status lines and never waits on the JavaFX thread.
+	 * @param event the event
+	 */
+	private void showEvent(DriverEvent event)
+	{
+		switch(event.getType())
+		{
+			case CHECKING_CREDENTIALS:
+				status.println("Checking Credentials...");
+				break;
+			case CREDENTIALS_CHECKED:
+				status.println(event.getFlag() ? "Credentials Correct!" : "Invalid Credentials");
+				break;
+			case SHIFT_WAITING:
+				status.println(String.format(event.getFlag() ? "Need to wait %d seconds until work!" : "Need to wait %d seconds until off work!",
+						event.getWait().toSeconds()));
+				break;
+			case WORKING_SET:
+				status.println(event.getFlag() ? "Time to work!" : "Time to leave work!");
+				break;
+			case DAY_DONE:
+				status.println(event.getFlag() ? "We are done with the day" : "You do not have work today");
+				break;
+			case ERROR:
+				status.println("Error Occured");
+				break;
+			case DRIVERS_MISSING:
+				Platform.runLater(() -> {
+					Main.alert("WebDrivers do not exist.\nPlease restart the program to reinstall drivers.", AlertType.ERROR);
+				});
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Interrupts the "login tutor" thread. This also cancels its scheduled
+	 * shifts, which outlive the thread itself.
 	 */
 	public void stopThread()
 	{
-		if(tutorThread != null && tutorThread.isAlive())
+		if(tutorThread != null)
 		{
 			tutorThread.getDriverUser().closeDriver();
 			tutorThread.interrupt();
 		}
 	}
 	
+	/**
+	 * Interrupts the "login tutor" thread and stops showing its status.
+	 * Should be called when the window closes.
+	 */
+	public void close()
+	{
+		stopThread();
+		status.stop();
+	}
+	
 	/**
 	 * Reset the fields back to normal and the button back to "start".
 	 */
@@ -1,13 +1,15 @@
 package collin.timescreator.javafx.utils;
 
 import java.time.DateTimeException;
+import java.time.DayOfWeek;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.UnaryOperator;
-import java.util.regex.Pattern;
 
 import collin.timescreator.util.Pair;
 import collin.timescreator.util.Shift;
+import collin.timescreator.util.TimeParser;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
@@ -43,95 +45,22 @@ public class ShiftPane
 	 */
 	private static final String DEFAULT_PROMPT_TEXT = "(H) or (H:MM)";
 	
-	/**
-	 * A regex pattern for unwanted characters in shift textfields.
-	 */
-	private static final Pattern UNALLOWED_CHARACTERS_TEXTFIELD_PATTERN = Pattern.compile("[^1234567890:]");
-	
-	/**
-	 * A regex pattern for a bad full time format.
-	 */
-	private static final Pattern TIME_FORMAT_BAD = Pattern.compile("\\d{2,}:\\d{3,}");
-	
-	/**
-	 * A regex pattern for a bad full time format.
-	 */
-	private static final Pattern TIME_FORMAT_BAD2 = Pattern.compile("\\d{3,}:\\d{2,}");
-	
-	/**
-	 * A regex pattern for a bad front time format.
-	 */
-	private static final Pattern FRONT_TIME_FORMAT_BAD = Pattern.compile("\\d{3,}");
-	
-	/**
-	 * A regex pattern for a bad back time format.
-	 */
-	private static final Pattern BACK_TIME_FORMAT_BAD = Pattern.compile(":\\d{3,}");
-	
 	/**
 	 * A text filter that catches incoming changes to a text field and manipulates the text before it is sent to
 	 * any key pressed/typed listeners and onto the screen. This is used to block unwanted characters.
+	 * Text is only let through if it is empty or the TimeParser can read it as a time.
 	 */
 	private static final UnaryOperator<TextFormatter.Change> TEXT_FILTER = new UnaryOperator<TextFormatter.Change>() {
 		@Override
 		public TextFormatter.Change apply(TextFormatter.Change change)
 		{
-			String newText = change.getText();
 			String possibleNewText = change.getControlNewText();
-			TextFormatter.Change result = change;
-			if(UNALLOWED_CHARACTERS_TEXTFIELD_PATTERN.matcher(newText).matches())
-			{
-				result = null;
-			}
-			else if(FRONT_TIME_FORMAT_BAD.matcher(possibleNewText).matches())
-			{
-				result = null;
-			}
-			else if(BACK_TIME_FORMAT_BAD.matcher(possibleNewText).matches())
-			{
-				result = null;
-			}
-			else if(TIME_FORMAT_BAD.matcher(possibleNewText).matches()
-					|| TIME_FORMAT_BAD2.matcher(possibleNewText).matches())
+			if(possibleNewText.isEmpty() || TimeParser.parseMinute(possibleNewText) != TimeParser.ERROR)
 			{
-				result = null;
-			}
-			else if(!possibleNewText.isEmpty())
-			{
-				String[] hourAndMinute = possibleNewText.split(":");
-				if(hourAndMinute.length > 0)
-				{
-					if(hourAndMinute[0].equals(""))
-					{
-						result = null;
-					}
-					else
-					{
-						int hour = Integer.valueOf(hourAndMinute[0]);
-						if(hour < 0 || hour > 23)
-						{
-							result = null;
-						}
-					}
-				}
-				if(hourAndMinute.length > 1)
-				{
-					try
-					{
-						int minute = Integer.valueOf(hourAndMinute[1]);
-						if(minute < 0 || minute > 59)
-						{
-							result = null;
-						}
-					}
-					catch(NumberFormatException e)
-					{
-						result = null;
-					}
-				}
+				return change;
 			}
 			
-			return result;
+			return null;
 		}
 	};
 	
@@ -161,6 +90,11 @@ public class ShiftPane
 	 */
 	private String day;
 	
+	/**
+	 * The day of the week this ShiftPane is representing, or null if its Label is not a day.
+	 */
+	private DayOfWeek dayOfWeek;
+	
 	/**
 	 * The button to add the new shift.
 	 */
@@ -238,6 +172,15 @@ public class ShiftPane
 		return day;
 	}
 	
+	/**
+	 * Gets the day of the week this ShiftPane represents.
+	 * @return day of the week, or null if its Label is not the English name of a day
+	 */
+	public DayOfWeek getDayOfWeek()
+	{
+		return dayOfWeek;
+	}
+	
 	/**
 	 * Clears all textfields and removes empty ones.
 	 */
@@ -384,6 +327,14 @@ public class ShiftPane
 			if(n instanceof Label)
 			{
 				day = ((Label) n).getText();
+				try
+				{
+					dayOfWeek = DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ENGLISH));
+				}
+				catch(IllegalArgumentException e)
+				{
+					dayOfWeek = null;
+				}
 				break;
 			}
 		}
@@ -438,7 +389,7 @@ public class ShiftPane
 		gridPane.addRow(gridPane.getRowCount(), label, newButton, text1, text2);
 		if(gridPane.getRowCount() >= DEFAULT_SHIFTS_ALLOWED)
 			addButton.setDisable(true);
-
+		
 		mainStage.setHeight((gridPane.getRowConstraints().get(0).getMinHeight() * 3) * ++ROWS_ADDED + START_SIZE);
 	}
 	
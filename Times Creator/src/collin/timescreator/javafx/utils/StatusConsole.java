@@ -0,0 +1,176 @@
+package collin.timescreator.javafx.utils;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.TextArea;
+
+/**
+ * A line based status output on top of a TextArea that any thread may
+ * print to. Lines are queued without locking and added to the TextArea on
+ * the JavaFX thread once per frame in a single append, so a busy thread
+ * cannot flood the JavaFX thread with work. Only the newest lines are kept,
+ * both shown and waiting, so printing while the console is stopped cannot
+ * grow it without bound.
+ * @author colli
+ *
+ */
+public class StatusConsole
+{
+	/**
+	 * Default amount of lines kept.
+	 */
+	public static final int DEFAULT_MAX_LINES = 500;
+	
+	/**
+	 * The TextArea the lines are shown in.
+	 */
+	private final TextArea output;
+	
+	/**
+	 * The most lines kept.
+	 */
+	private final int maxLines;
+	
+	/**
+	 * Lines printed but not yet shown.
+	 */
+	private final ConcurrentLinkedQueue<String> pending;
+	
+	/**
+	 * The amount of lines in pending, give or take the lines being added or removed.
+	 */
+	private final AtomicInteger pendingCount;
+	
+	/**
+	 * The length of every line shown, including its new line, oldest first.
+	 * Only touched by the JavaFX thread.
+	 */
+	private final ArrayDeque<Integer> lineLengths;
+	
+	/**
+	 * Reusable text for the lines added in a frame. Only touched by the JavaFX thread.
+	 */
+	private final StringBuilder batch;
+	
+	/**
+	 * Shows pending lines once per frame.
+	 */
+	private final AnimationTimer timer = new AnimationTimer() {
+		/**
+		 * Shows any pending lines.
+		 * @param now the time of the current frame
+		 */
+		@Override
+		public void handle(long now)
+		{
+			drain();
+		}
+	};
+	
+	/**
+	 * Constructor. Keeps the default amount of lines.
+	 * @param output the TextArea to show lines in
+	 */
+	public StatusConsole(TextArea output)
+	{
+		this(output, DEFAULT_MAX_LINES);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param output the TextArea to show lines in
+	 * @param maxLines the most lines kept
+	 * @throws NullPointerException if the TextArea is null
+	 * @throws IllegalArgumentException if maxLines is not positive
+	 */
+	public StatusConsole(TextArea output, int maxLines) throws NullPointerException, IllegalArgumentException
+	{
+		if(output == null)
+			throw new NullPointerException();
+		if(maxLines <= 0)
+			throw new IllegalArgumentException(String.valueOf(maxLines));
+		this.output = output;
+		this.maxLines = maxLines;
+		pending = new ConcurrentLinkedQueue<String>();
+		pendingCount = new AtomicInteger();
+		lineLengths = new ArrayDeque<Integer>();
+		batch = new StringBuilder();
+	}
+	
+	/**
+	 * Prints a line. Safe to call from any thread. The oldest waiting line
+	 * is dropped if more are waiting than would be kept.
+	 * @param line the line, without a new line at the end
+	 */
+	public void println(String line)
+	{
+		pending.add(line);
+		if(pendingCount.incrementAndGet() > maxLines && pending.poll() != null)
+		{
+			pendingCount.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Starts showing printed lines. Must be called on the JavaFX thread.
+	 */
+	public void start()
+	{
+		timer.start();
+	}
+	
+	/**
+	 * Stops showing printed lines. Must be called on the JavaFX thread.
+	 */
+	public void stop()
+	{
+		timer.stop();
+	}
+	
+	/**
+	 * Removes every line, shown or not. Must be called on the JavaFX thread.
+	 */
+	public void clear()
+	{
+		while(pending.poll() != null)
+		{
+			pendingCount.decrementAndGet();
+		}
+		lineLengths.clear();
+		output.clear();
+	}
+	
+	/**
+	 * Adds every pending line to the TextArea in one append, then removes
+	 * the oldest lines over the limit in one delete.
+	 */
+	private void drain()
+	{
+		String line;
+		while((line = pending.poll()) != null)
+		{
+			pendingCount.decrementAndGet();
+			batch.append(line).append('\n');
+			lineLengths.addLast(line.length() + 1);
+		}
+		if(batch.length() == 0)
+		{
+			return;
+		}
+		output.appendText(batch.toString());
+		batch.setLength(0);
+		
+		int removed = 0;
+		while(lineLengths.size() > maxLines)
+		{
+			removed += lineLengths.removeFirst();
+		}
+		if(removed > 0)
+		{
+			output.deleteText(0, removed);
+		}
+	}
+}
@@ -1,16 +1,11 @@
 package collin.timescreator.selenium.firefly;
 
-import java.util.HashMap;
-import java.util.List;
-
 import collin.timescreator.javafx.application.Main;
 import collin.timescreator.selenium.utils.BrowserType;
+import collin.timescreator.selenium.utils.DriverEvent;
 import collin.timescreator.selenium.utils.DriverThread;
 import collin.timescreator.util.LogLevel;
-import collin.timescreator.util.Shift;
-import javafx.application.Platform;
-import javafx.scene.control.Alert;
-import javafx.scene.control.Alert.AlertType;
+import collin.timescreator.util.WeekSchedule;
 
 /**
  * A thread responsible for running the "firefly process".
@@ -23,7 +18,7 @@ public class FireflyThread extends DriverThread<TrueYou>
 	/**
 	 * The shift data.
 	 */
-	private HashMap<String, List<Shift>> data;
+	private WeekSchedule data;
 	
 	/**
 	 * Creates a TrueYou user from the given parameters.
@@ -33,7 +28,7 @@ public class FireflyThread extends DriverThread<TrueYou>
 	 * @param fireflyController the controller creating this thread.
 	 * @param data shift data.
 	 */
-	public FireflyThread(HashMap<String, List<Shift>> data,
+	public FireflyThread(WeekSchedule data,
 			int nuid, String password, BrowserType type)
 	{
 		super(new TrueYou(nuid, password, type));
@@ -57,16 +52,15 @@ public class FireflyThread extends DriverThread<TrueYou>
 		}
 		catch(IllegalStateException e)
 		{
-			Main.log(e.getMessage(), LogLevel.DANGER);
+			Main.log(e::getMessage, LogLevel.DANGER);
 			result = LOGIN_RESULT.ERROR;
-			Platform.runLater(() -> {
-				Main.alert("WebDrivers do not exist.\nPlease restart the program to reinstall drivers.", Alert.AlertType.ERROR);
-			});
+			publish(DriverEvent.driversMissing(this));
 		}
 		catch(Exception e)
 		{
-			Main.log(e.getMessage(), LogLevel.DANGER);
+			Main.log(e::getMessage, LogLevel.DANGER);
 			result = LOGIN_RESULT.ERROR; // Driver was closed during the process
+			publish(DriverEvent.error(this, e.getMessage()));
 		}
 		
 		if(result == LOGIN_RESULT.ERROR)
@@ -76,10 +70,10 @@ public class FireflyThread extends DriverThread<TrueYou>
 		if(result == LOGIN_RESULT.INCORRECT)
 		{
 			getDriverUser().closeDriver();
-			Platform.runLater(() ->
-			{
-				Main.alert("Invalid Credentials", AlertType.ERROR);
-			});
+		}
+		if(result != LOGIN_RESULT.ERROR)
+		{
+			publish(DriverEvent.credentialsChecked(this, result == LOGIN_RESULT.CORRECT));
 		}
 		this.reset();
 	}
@@ -93,4 +87,4 @@ public class FireflyThread extends DriverThread<TrueYou>
 	{
 		INCORRECT, CORRECT, ERROR;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,7 +1,7 @@
 package collin.timescreator.selenium.firefly;
 
+import java.time.DayOfWeek;
 import java.util.List;
-import java.util.Map;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Actions;
@@ -14,7 +14,7 @@ import collin.timescreator.selenium.utils.DriverUser;
 import collin.timescreator.selenium.utils.KeysAction;
 import collin.timescreator.selenium.utils.WaitAction;
 import collin.timescreator.util.Procedure;
-import collin.timescreator.util.Shift;
+import collin.timescreator.util.WeekSchedule;
 
 /**
  * A Firefly User.
@@ -61,13 +61,12 @@ public class TrueYou extends DriverUser
 	private static final int DEFAULT_WAITING_SECONDS = 25;
 	
 	/**
-	 * An array of string that are in the order of how
-	 * Firefly lays out its rows and are the exact
-	 * keys in the shift data map.
+	 * The days of the week in the order of how
+	 * Firefly lays out its rows.
 	 */
-	private static final String[] FIREFLY_ROWS_BY_DAY = {
-			"Friday", "Saturday", "Sunday", "Monday",
-			"Tuesday", "Wednesday", "Thursday"
+	private static final DayOfWeek[] FIREFLY_ROWS_BY_DAY = {
+			DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY, DayOfWeek.MONDAY,
+			DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY
 	};
 	
 	/**
@@ -172,7 +171,7 @@ public class TrueYou extends DriverUser
 	 * @return true if successful, false otherwise.
 	 * @throws InterruptedException 
 	 */
-	public boolean uploadHours(Map<String, List<Shift>> data)
+	public boolean uploadHours(WeekSchedule data)
 	{
 		startDriver(FIREFLY_URL);
 		FIREFLY_UPLOAD_PROCESS.perform(3);
@@ -193,7 +192,7 @@ public class TrueYou extends DriverUser
 		
 		for(int h = 0; h < FIREFLY_ROWS_BY_DAY.length; h++)
 		{
-			for(int i = 1; i < data.get(FIREFLY_ROWS_BY_DAY[h]).size(); i++)
+			for(int i = 1; i < data.getShiftCount(FIREFLY_ROWS_BY_DAY[h]); i++)
 			{
 				driver.findElements(By.cssSelector("button[title='Add']")).get(h).click();
 			}
@@ -207,10 +206,10 @@ public class TrueYou extends DriverUser
 		int amountMade = 0;
 		for(int i = 0; i < rows.size(); i++)
 		{
-			if(data.get(FIREFLY_ROWS_BY_DAY[dayOfWeek]).size() != 0)
+			if(data.getShiftCount(FIREFLY_ROWS_BY_DAY[dayOfWeek]) != 0)
 			{
-				String startTime = String.valueOf(data.get(FIREFLY_ROWS_BY_DAY[dayOfWeek]).get(counter - 1).getStart());
-				String endTime = String.valueOf(data.get(FIREFLY_ROWS_BY_DAY[dayOfWeek]).get(counter - 1).getStop());
+				String startTime = String.valueOf(data.getStart(FIREFLY_ROWS_BY_DAY[dayOfWeek], counter - 1));
+				String endTime = String.valueOf(data.getStop(FIREFLY_ROWS_BY_DAY[dayOfWeek], counter - 1));
 				List<WebElement> checkboxes = driver.findElements(WORKLIST_CHECKBOX_BY);
 				checkboxes.get(i).click();
 				List<WebElement> buttons = driver.findElements(SHIFT_TYPE_BUTTON_BY);
@@ -256,7 +255,7 @@ public class TrueYou extends DriverUser
 					secondEquals = inputs.get(i * 2 + 1).getAttribute("value").equals(endTime);
 				}
 			}
-			if(counter >= data.get(FIREFLY_ROWS_BY_DAY[dayOfWeek]).size())
+			if(counter >= data.getShiftCount(FIREFLY_ROWS_BY_DAY[dayOfWeek]))
 			{
 				counter = 1;
 				dayOfWeek++;
@@ -24,7 +24,7 @@ public class Tutor extends DriverUser
 	/**
 	 * URL for the CSLC tutoring portal.
 	 */
-	private static final String TUTOR_URL = "https://tutoring.ist.unomaha.edu";
+	public static final String TUTOR_URL = "https://tutoring.ist.unomaha.edu";
 	
 	/**
 	 * The default browser to use to interact with the CSLC tutoring portal.
@@ -191,7 +191,31 @@ public class Tutor extends DriverUser
 	 */
 	public boolean working(boolean work)
 	{
-		if(!editUser())
+		return prepareWorking() && submitWorking(work);
+	}
+	
+	/**
+	 * Does the slow part of setting whether the tutor is working ahead of
+	 * time: starts the browser, signs in and opens the "edit user" page.
+	 * The browser is left on that page for submitWorking.
+	 * @return true if successful, false otherwise.
+	 */
+	public boolean prepareWorking()
+	{
+		return editUser();
+	}
+	
+	/**
+	 * Sets whether the tutor is working and submits it, then closes the
+	 * browser. This is quick if prepareWorking was called first; otherwise
+	 * the browser is started and signed in here.
+	 * @param work true to set the tutor as currently working, false to
+	 * set the tutor as currently not working
+	 * @return true if successful, false otherwise.
+	 */
+	public boolean submitWorking(boolean work)
+	{
+		if(!isPrepared() && !editUser())
 			return false;
 		WebElement workingCheckbox = driver.findElement(By.id("is_working"));
 		if(work && !workingCheckbox.isSelected()
@@ -206,6 +230,15 @@ public class Tutor extends DriverUser
 		return true;
 	}
 	
+	/**
+	 * Checks if the browser is open on the "edit user" page.
+	 * @return true if the working checkbox can be submitted right away
+	 */
+	public boolean isPrepared()
+	{
+		return !isDriverDead(driver) && !driver.findElements(By.id("is_working")).isEmpty();
+	}
+	
 	/**
 	 * Checks if the tutor is currently working.
 	 * @return true if this tutor is currently working, false otherwise
@@ -0,0 +1,322 @@
+package collin.timescreator.selenium.tutorlogin;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * What the "tutor login" process last knew about a tutor, saved so a
+ * restart can pick up where it left off: when the tutor's credentials were
+ * last found correct and which password that was, and when the tutor was
+ * last set to working or not working. Each tutor has one small binary
+ * file named after their netID. The password is never saved, only a
+ * salted PBKDF2 hash of it, so a different password can be told apart.
+ * <p>
+ * Checkpoints are immutable; the with methods make a changed copy.
+ * @author colli
+ *
+ */
+public final class TutorCheckpoint
+{
+	/**
+	 * The start of every checkpoint file.
+	 */
+	private static final int MAGIC = 0x54434B50; // "TCKP"
+	
+	/**
+	 * The version of the file layout.
+	 */
+	private static final byte VERSION = 2;
+	
+	/**
+	 * The version of the file layout before the password hash was saved.
+	 */
+	private static final byte VERSION_WITHOUT_HASH = 1;
+	
+	/**
+	 * The length of the salt of the password hash, in bytes.
+	 */
+	private static final int SALT_LENGTH = 16;
+	
+	/**
+	 * The length of the password hash, in bytes.
+	 */
+	private static final int HASH_LENGTH = 32;
+	
+	/**
+	 * How many PBKDF2 iterations the password hash takes.
+	 */
+	private static final int HASH_ITERATIONS = 100_000;
+	
+	/**
+	 * The size of a checkpoint file in bytes.
+	 */
+	private static final int SIZE = Integer.BYTES + 2 + 2 * Long.BYTES + SALT_LENGTH + HASH_LENGTH;
+	
+	/**
+	 * Makes the salts of password hashes.
+	 */
+	private static final SecureRandom RANDOM = new SecureRandom();
+	
+	/**
+	 * The extension of checkpoint files.
+	 */
+	public static final String EXTENSION = ".ckpt";
+	
+	/**
+	 * A checkpoint that knows nothing.
+	 */
+	public static final TutorCheckpoint EMPTY = new TutorCheckpoint(0, null, null, 0, false);
+	
+	/**
+	 * When the credentials were last found correct, in epoch milliseconds, or 0.
+	 */
+	private final long credentialsCheckedMillis;
+	
+	/**
+	 * The salt of the hash of the password found correct, or null.
+	 */
+	private final byte[] salt;
+	
+	/**
+	 * The hash of the password found correct, or null.
+	 */
+	private final byte[] hash;
+	
+	/**
+	 * When the tutor was last set to working or not, in epoch milliseconds, or 0.
+	 */
+	private final long transitionMillis;
+	
+	/**
+	 * Whether the tutor was last set to working.
+	 */
+	private final boolean working;
+	
+	/**
+	 * Constructor.
+	 * @param credentialsCheckedMillis when the credentials were last found correct
+	 * @param salt the salt of the hash of the password found correct, or null
+	 * @param hash the hash of the password found correct, or null
+	 * @param transitionMillis when the tutor was last set to working or not
+	 * @param working whether the tutor was last set to working
+	 */
+	private TutorCheckpoint(long credentialsCheckedMillis, byte[] salt, byte[] hash, long transitionMillis, boolean working)
+	{
+		this.credentialsCheckedMillis = credentialsCheckedMillis;
+		this.salt = salt;
+		this.hash = hash;
+		this.transitionMillis = transitionMillis;
+		this.working = working;
+	}
+	
+	/**
+	 * Gets the file of a tutor's checkpoint.
+	 * @param directory the directory checkpoints are kept in
+	 * @param netID the tutor's netID
+	 * @return the file
+	 * @throws NullPointerException if either argument is null
+	 */
+	public static Path pathFor(Path directory, String netID) throws NullPointerException
+	{
+		StringBuilder name = new StringBuilder(netID.length() + EXTENSION.length());
+		for(int i = 0; i < netID.length(); i++)
+		{
+			char c = netID.charAt(i);
+			name.append(Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : '_');
+		}
+		return directory.resolve(name.append(EXTENSION).toString());
+	}
+	
+	/**
+	 * Reads a checkpoint file.
+	 * @param file the file
+	 * @return the checkpoint, or EMPTY if there is no file or it is not a checkpoint.
+	 * A checkpoint saved before password hashes has no credentials found correct.
+	 * @throws IOException if the file could not be read
+	 */
+	public static TutorCheckpoint read(Path file) throws IOException
+	{
+		ByteBuffer b;
+		try
+		{
+			b = ByteBuffer.wrap(Files.readAllBytes(file));
+		}
+		catch(NoSuchFileException e)
+		{
+			return EMPTY;
+		}
+		try
+		{
+			if(b.getInt() != MAGIC)
+			{
+				return EMPTY;
+			}
+			byte version = b.get();
+			if(version != VERSION && version != VERSION_WITHOUT_HASH)
+			{
+				return EMPTY;
+			}
+			boolean working = b.get() != 0;
+			long credentialsCheckedMillis = b.getLong();
+			long transitionMillis = b.getLong();
+			if(version == VERSION_WITHOUT_HASH)
+			{
+				return new TutorCheckpoint(0, null, null, transitionMillis, working);
+			}
+			byte[] salt = new byte[SALT_LENGTH];
+			byte[] hash = new byte[HASH_LENGTH];
+			b.get(salt).get(hash);
+			if(credentialsCheckedMillis == 0)
+			{
+				return new TutorCheckpoint(0, null, null, transitionMillis, working);
+			}
+			return new TutorCheckpoint(credentialsCheckedMillis, salt, hash, transitionMillis, working);
+		}
+		catch(BufferUnderflowException e)
+		{
+			return EMPTY;
+		}
+	}
+	
+	/**
+	 * Writes this checkpoint to a file. The file is written beside the
+	 * old one and moved over it, so it is never left half written.
+	 * @param file the file
+	 * @throws IOException if the file could not be written
+	 */
+	public void write(Path file) throws IOException
+	{
+		ByteBuffer b = ByteBuffer.allocate(SIZE);
+		b.putInt(MAGIC).put(VERSION).put((byte) (working ? 1 : 0)).putLong(credentialsCheckedMillis).putLong(transitionMillis);
+		if(hash != null)
+		{
+			b.put(salt).put(hash);
+		}
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.write(temporary, b.array());
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Makes a copy of this checkpoint with the credentials found correct at the given time.
+	 * @param time when the credentials were found correct
+	 * @param password the password that was found correct
+	 * @return the copy, without credentials if the password could not be hashed
+	 * @throws NullPointerException if either argument is null
+	 */
+	public TutorCheckpoint withCredentialsChecked(Instant time, String password) throws NullPointerException
+	{
+		if(time == null || password == null)
+			throw new NullPointerException();
+		byte[] newSalt = new byte[SALT_LENGTH];
+		RANDOM.nextBytes(newSalt);
+		byte[] newHash = hash(password, newSalt);
+		if(newHash == null)
+		{
+			return withoutCredentials();
+		}
+		return new TutorCheckpoint(time.toEpochMilli(), newSalt, newHash, transitionMillis, working);
+	}
+	
+	/**
+	 * Makes a copy of this checkpoint with no credentials found correct,
+	 * such as after they were turned down.
+	 * @return the copy
+	 */
+	public TutorCheckpoint withoutCredentials()
+	{
+		return new TutorCheckpoint(0, null, null, transitionMillis, working);
+	}
+	
+	/**
+	 * Checks if a password is the one that was found correct.
+	 * @param password the password
+	 * @return true if credentials were found correct with this password
+	 */
+	public boolean isCheckedFor(String password)
+	{
+		if(hash == null || password == null)
+		{
+			return false;
+		}
+		byte[] other = hash(password, salt);
+		return other != null && MessageDigest.isEqual(hash, other);
+	}
+	
+	/**
+	 * Hashes a password with a salt.
+	 * @param password the password
+	 * @param salt the salt
+	 * @return the hash, or null if this runtime cannot make it
+	 */
+	private static byte[] hash(String password, byte[] salt)
+	{
+		char[] characters = password.toCharArray();
+		PBEKeySpec spec = new PBEKeySpec(characters, salt, HASH_ITERATIONS, HASH_LENGTH * Byte.SIZE);
+		try
+		{
+			return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+		}
+		catch(GeneralSecurityException e)
+		{
+			return null;
+		}
+		finally
+		{
+			spec.clearPassword();
+			Arrays.fill(characters, '\0');
+		}
+	}
+	
+	/**
+	 * Makes a copy of this checkpoint with the tutor set to working or not at the given time.
+	 * @param time when the tutor was set
+	 * @param working whether the tutor was set to working
+	 * @return the copy
+	 */
+	public TutorCheckpoint withTransition(Instant time, boolean working)
+	{
+		return new TutorCheckpoint(credentialsCheckedMillis, salt, hash, time.toEpochMilli(), working);
+	}
+	
+	/**
+	 * Gets when the credentials were last found correct.
+	 * @return the time, or null if never
+	 */
+	public Instant getCredentialsChecked()
+	{
+		return credentialsCheckedMillis == 0 ? null : Instant.ofEpochMilli(credentialsCheckedMillis);
+	}
+	
+	/**
+	 * Gets when the tutor was last set to working or not.
+	 * @return the time, or null if never
+	 */
+	public Instant getLastTransition()
+	{
+		return transitionMillis == 0 ? null : Instant.ofEpochMilli(transitionMillis);
+	}
+	
+	/**
+	 * Checks if the tutor was last set to working.
+	 * @return true if the tutor should be working
+	 */
+	public boolean isWorking()
+	{
+		return working;
+	}
+}
@@ -1,57 +1,203 @@
 package collin.timescreator.selenium.tutorlogin;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.TextStyle;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
+import java.util.function.UnaryOperator;
 
 import collin.timescreator.javafx.application.Main;
 import collin.timescreator.selenium.utils.BrowserType;
 import collin.timescreator.selenium.utils.DeadDriverException;
+import collin.timescreator.selenium.utils.DriverEvent;
 import collin.timescreator.selenium.utils.DriverInterruptedException;
 import collin.timescreator.selenium.utils.DriverThread;
-import collin.timescreator.util.Shift;
-import javafx.application.Platform;
-import javafx.scene.control.Alert;
-import javafx.scene.control.TextArea;
+import collin.timescreator.util.Log;
+import collin.timescreator.util.LogField;
+import collin.timescreator.util.LogLevel;
+import collin.timescreator.util.RollingPercentile;
+import collin.timescreator.util.ShiftScheduler;
+import collin.timescreator.util.WeeklyTransitions;
 
 /**
- * Thread that is the "tutor login" process.
+ * Thread that is the "tutor login" process. The thread only checks the
+ * tutor's credentials. Every shift start and stop after that is handed to
+ * a ShiftScheduler, so no thread sits waiting for the next shift.
+ * Interrupting the thread cancels every transition it scheduled.
+ * <p>
+ * Signing in takes a browser launch and the whole SSO chain, so each
+ * transition is prepared a lead time early, leaving only the working
+ * checkbox to submit when the shift actually starts or stops. How long
+ * signing in and submitting take is tracked across every tutor, and each
+ * step is started early by its 95th percentile, so the submit lands on
+ * the shift change even when the portal is slow.
+ * <p>
+ * Given a checkpoint directory, the thread keeps a TutorCheckpoint of the
+ * tutor there. A restart then skips checking the same credentials found
+ * correct recently, and puts the tutor straight into the state the
+ * schedule says they should be in, without signing in again for a shift
+ * they are already working.
  * @author colli
  *
  */
 public class TutorTimedLoginThread extends DriverThread<Tutor>
 {
+	/**
+	 * Default time before a shift starts or stops that signing in begins.
+	 */
+	public static final Duration DEFAULT_LEAD_TIME = Duration.ofSeconds(90);
+	
+	/**
+	 * The percentile of past durations each step is started early by.
+	 */
+	public static final double COMPENSATION_PERCENTILE = 95;
+	
+	/**
+	 * How recently the credentials must have been found correct to not check them again.
+	 */
+	public static final Duration CREDENTIAL_REUSE = Duration.ofHours(12);
+	
+	/**
+	 * How long signing in up to the "edit user" page took, in nanoseconds.
+	 */
+	private static final RollingPercentile SIGN_IN_TIMES = new RollingPercentile();
+	
+	/**
+	 * How long submitting the working checkbox took once signed in, in nanoseconds.
+	 */
+	private static final RollingPercentile SUBMIT_TIMES = new RollingPercentile();
+	
+	/**
+	 * When the tutor starts and stops working each week.
+	 */
+	private final WeeklyTransitions week;
+	
+	/**
+	 * Runs the shift starts and stops.
+	 */
+	private final ShiftScheduler scheduler;
+	
+	/**
+	 * The transitions waiting to run. Guarded by itself.
+	 */
+	private final List<ShiftScheduler.Transition> transitions;
+	
+	/**
+	 * Whether the process was stopped. Guarded by transitions.
+	 */
+	private boolean cancelled;
+	
+	/**
+	 * Held while logging in or out, so one transition running late
+	 * does not overlap the next.
+	 */
+	private final Object workLock;
+	
+	/**
+	 * How long before a shift starts or stops that signing in begins.
+	 */
+	private volatile Duration leadTime;
 	
 	/**
-	 * The shift data.
+	 * The directory the tutor's checkpoint is kept in, or null to keep none.
 	 */
-	private HashMap<String, List<Shift>> dayData;
+	private volatile Path checkpointDirectory;
 	
 	/**
-	 * Output area for user to see status.
+	 * What was last known about the tutor. Only written while holding the work lock.
 	 */
-	private TextArea loginOutput;
+	private volatile TutorCheckpoint checkpoint;
 	
 	/**
 	 * Creates a tutor from parameters.
+	 * @param week when the tutor starts and stops working each week
 	 * @param emailIn tutor email
 	 * @param netIDIn tutor netID
 	 * @param passwordIn tutor password
 	 * @param type type of browser to use when logging in or out
-	 * @param tutorLoginController the controller creating this thread
-	 * @param dayData shift data
+	 * @param scheduler runs the shift starts and stops
+	 * @throws NullPointerException if the week or scheduler is null
 	 */
-	public TutorTimedLoginThread(HashMap<String, List<Shift>> dayData, TextArea loginOutput,
-			String emailIn, String netIDIn, String passwordIn, BrowserType type)
+	public TutorTimedLoginThread(WeeklyTransitions week,
+			String emailIn, String netIDIn, String passwordIn, BrowserType type, ShiftScheduler scheduler) throws NullPointerException
 	{
 		super(new Tutor(netIDIn, passwordIn, emailIn, type));
-		this.loginOutput = loginOutput;
-		this.dayData = dayData;
+		if(week == null || scheduler == null)
+			throw new NullPointerException();
+		this.week = week;
+		this.scheduler = scheduler;
+		transitions = new ArrayList<ShiftScheduler.Transition>();
+		workLock = new Object();
+		leadTime = DEFAULT_LEAD_TIME;
+		checkpoint = TutorCheckpoint.EMPTY;
+	}
+	
+	/**
+	 * Estimates how long signing in up to the "edit user" page takes.
+	 * @return the compensation percentile of recent sign ins, or zero if there were none
+	 */
+	public static Duration getSignInEstimate()
+	{
+		return Duration.ofNanos(SIGN_IN_TIMES.percentile(COMPENSATION_PERCENTILE, 0));
+	}
+	
+	/**
+	 * Estimates how long submitting the working checkbox takes once signed in.
+	 * @return the compensation percentile of recent submits, or zero if there were none
+	 */
+	public static Duration getSubmitEstimate()
+	{
+		return Duration.ofNanos(SUBMIT_TIMES.percentile(COMPENSATION_PERCENTILE, 0));
+	}
+	
+	/**
+	 * Sets how long before a shift starts or stops that signing in begins.
+	 * Signing in starts earlier still if it has recently taken longer than
+	 * this. Only affects days scheduled after this call.
+	 * @param leadTime the lead time, or zero to sign in right at the shift change
+	 * @throws NullPointerException if the lead time is null
+	 * @throws IllegalArgumentException if the lead time is negative
+	 */
+	public void setLeadTime(Duration leadTime) throws NullPointerException, IllegalArgumentException
+	{
+		if(leadTime == null)
+			throw new NullPointerException();
+		if(leadTime.isNegative())
+			throw new IllegalArgumentException(leadTime.toString());
+		this.leadTime = leadTime;
+	}
+	
+	/**
+	 * Gets how long before a shift starts or stops that signing in begins.
+	 * @return the lead time
+	 */
+	public Duration getLeadTime()
+	{
+		return leadTime;
+	}
+	
+	/**
+	 * Sets the directory the tutor's checkpoint is kept in.
+	 * Must be called before the thread starts.
+	 * @param checkpointDirectory the directory, or null to keep no checkpoint
+	 */
+	public void setCheckpointDirectory(Path checkpointDirectory)
+	{
+		this.checkpointDirectory = checkpointDirectory;
+	}
+	
+	/**
+	 * Gets the directory the tutor's checkpoint is kept in.
+	 * @return the directory, or null if no checkpoint is kept
+	 */
+	public Path getCheckpointDirectory()
+	{
+		return checkpointDirectory;
 	}
 	
 	/**
@@ -59,28 +205,115 @@ public class TutorTimedLoginThread extends DriverThread<Tutor>
 	 */
 	private boolean credentialsCheck()
 	{
-		Platform.runLater(() ->
-		{
-			loginOutput.appendText("Checking Credentials...\n");
-		});
+		publish(DriverEvent.checkingCredentials(this));
 		if(!getDriverUser().checkCredentials())
 		{
-			Platform.runLater(() ->
-			{
-				loginOutput.appendText("Invalid Credentials\n");
-			});
+			publish(DriverEvent.credentialsChecked(this, false));
 			return false;
 		}
-		Platform.runLater(() ->
-		{
-			loginOutput.appendText("Credentials Correct!\n");
-		});
+		publish(DriverEvent.credentialsChecked(this, true));
 		getDriverUser().closeDriver();
+		Instant now = scheduler.getClock().instant();
+		String password = getDriverUser().getPassword();
+		saveCheckpoint(c -> password == null ? c.withoutCredentials() : c.withCredentialsChecked(now, password));
 		return true;
 	}
 	
 	/**
-	 * The "tutor login" process.
+	 * Checks if the checkpoint shows these same credentials were found
+	 * correct recently. A password changed on the portal since then shows
+	 * up as invalid credentials at the next transition.
+	 * @return true if the credentials need not be checked again
+	 */
+	private boolean credentialsRecentlyChecked()
+	{
+		Instant checked = checkpoint.getCredentialsChecked();
+		Instant now = scheduler.getClock().instant();
+		return checked != null && !checked.isAfter(now) && Duration.between(checked, now).compareTo(CREDENTIAL_REUSE) < 0
+				&& checkpoint.isCheckedFor(getDriverUser().getPassword());
+	}
+	
+	/**
+	 * Reads the tutor's checkpoint, if one is kept.
+	 * @return the checkpoint, or an empty one if there is none or it could not be read
+	 */
+	private TutorCheckpoint readCheckpoint()
+	{
+		Path directory = checkpointDirectory;
+		if(directory == null)
+		{
+			return TutorCheckpoint.EMPTY;
+		}
+		try
+		{
+			return TutorCheckpoint.read(TutorCheckpoint.pathFor(directory, getDriverUser().getUsername()));
+		}
+		catch(IOException e)
+		{
+			logCheckpointFailure("read", e);
+			return TutorCheckpoint.EMPTY;
+		}
+	}
+	
+	/**
+	 * Changes the tutor's checkpoint and saves it, if one is kept.
+	 * A checkpoint that could not be saved is only logged.
+	 * @param change makes the new checkpoint from the old one
+	 */
+	private void saveCheckpoint(UnaryOperator<TutorCheckpoint> change)
+	{
+		synchronized(workLock)
+		{
+			TutorCheckpoint changed = change.apply(checkpoint);
+			checkpoint = changed;
+			Path directory = checkpointDirectory;
+			if(directory == null)
+			{
+				return;
+			}
+			try
+			{
+				changed.write(TutorCheckpoint.pathFor(directory, getDriverUser().getUsername()));
+			}
+			catch(IOException e)
+			{
+				logCheckpointFailure("save", e);
+			}
+		}
+	}
+	
+	/**
+	 * Logs that the tutor's checkpoint could not be read or saved.
+	 * @param action what was being done to the checkpoint
+	 * @param e what went wrong
+	 */
+	private void logCheckpointFailure(String action, IOException e)
+	{
+		Tutor tutor = getDriverUser();
+		Main.log(new Log("Could not " + action + " checkpoint: " + e.getMessage(), LogLevel.WARNING)
+				.with(LogField.NET_ID, tutor.getUsername())
+				.with(LogField.BROWSER, tutor.getBrowserType()));
+	}
+	
+	/**
+	 * Logs how long this tutor is waiting, tagged with who they are.
+	 * @param waitDuration how long until the next change
+	 * @param until what is being waited for
+	 */
+	private void logWait(Duration waitDuration, String until)
+	{
+		if(Main.isLoggable(LogLevel.INFO))
+		{
+			Tutor tutor = getDriverUser();
+			Main.log(new Log("Waiting " + waitDuration.toSeconds() + " seconds until " + until, LogLevel.INFO)
+					.with(LogField.NET_ID, tutor.getUsername())
+					.with(LogField.BROWSER, tutor.getBrowserType()));
+		}
+	}
+	
+	/**
+	 * The "tutor login" process. Checks the credentials, unless the
+	 * checkpoint shows they were checked recently, and schedules today's shifts.
 	 */
 	public void run()
 	{
@@ -88,83 +321,337 @@ public class TutorTimedLoginThread extends DriverThread<Tutor>
 		{
 			if(isInterrupted())
 				throw new InterruptedException();
-			if(!credentialsCheck())
+			TutorCheckpoint saved = readCheckpoint();
+			synchronized(workLock)
+			{
+				checkpoint = saved;
+			}
+			if(credentialsRecentlyChecked())
+			{
+				publish(DriverEvent.credentialsChecked(this, true));
+			}
+			else if(!credentialsCheck())
 			{
 				reset();
 				return;
 			}
-			while(true)
-			{
-				if(isInterrupted())
-					throw new InterruptedException();
-				LocalDateTime now;
-				LocalDateTime later;
-				Duration waitDuration;
-				String weekdayToday = LocalDate.now()
-									  .getDayOfWeek()
-									  .getDisplayName(TextStyle.FULL, Locale.ENGLISH);
-				boolean noShifts = true;
-				for(Shift shift : dayData.get(weekdayToday))
+			scheduleDay(LocalDate.now(scheduler.getClock()));
+		}
+		catch(InterruptedException e)
+		{
+			reset();
+		}
+		catch(RuntimeException e)
+		{
+			fail(e);
+		}
+	}
+	
+	/**
+	 * Stops the process, cancelling every transition it scheduled.
+	 */
+	@Override
+	public void interrupt()
+	{
+		synchronized(transitions)
+		{
+			cancelled = true;
+			for(ShiftScheduler.Transition t : transitions)
+			{
+				t.cancel();
+			}
+			transitions.clear();
+		}
+		super.interrupt();
+	}
+	
+	/**
+	 * Schedules the shifts of a day that have not ended yet, and the
+	 * scheduling of the next day. The day's shifts are looked up in the
+	 * weekly table, where shifts that touch or overlap are already one,
+	 * so the tutor is not clocked out and straight back in.
+	 * A shift under way is started right away, unless the checkpoint shows
+	 * the tutor is already working. A tutor the checkpoint shows working
+	 * outside of any shift is stopped right away.
+	 * @param day the day to schedule
+	 */
+	private void scheduleDay(LocalDate day)
+	{
+		int dayStart = WeeklyTransitions.minuteOfWeek(day.getDayOfWeek(), LocalTime.MIDNIGHT);
+		int first = week.ceilingIndex(dayStart);
+		int last = week.ceilingIndex(dayStart + WeeklyTransitions.MINUTES_PER_DAY);
+		LocalDateTime midnight = day.atStartOfDay();
+		
+		synchronized(transitions)
+		{
+			if(cancelled)
+			{
+				return;
+			}
+			transitions.clear();
+			LocalDateTime now = LocalDateTime.now(scheduler.getClock());
+			Duration submitEarly = getSubmitEstimate();
+			Duration signInEstimate = getSignInEstimate();
+			Duration prepareEarly = submitEarly.plus(signInEstimate.compareTo(leadTime) > 0 ? signInEstimate : leadTime);
+			List<LocalDateTime[]> upcoming = new ArrayList<LocalDateTime[]>();
+			// Each day of the table is whole start and stop pairs.
+			for(int i = first; i + 1 < last; i += 2)
+			{
+				LocalDateTime stopTime = midnight.plusMinutes(week.getMinute(i + 1) - dayStart);
+				if(stopTime.isAfter(now))
 				{
-					if(shift == null)
-					{
-						continue;
-					}
-					noShifts = false;
-					now = LocalDateTime.now();
-					later = LocalDateTime.of(LocalDate.now(), shift.getStart());
-					waitDuration = Duration.between(now, later);
-					if(waitDuration.toMillis() > 0)
-					{
-						loginOutput.appendText(String.format("Need to wait %d seconds until work!\n", waitDuration.toSeconds()));
-						Thread.sleep(waitDuration.toMillis());
-						loginOutput.appendText("Time to work!\n");
-						if(isInterrupted())
-							throw new InterruptedException();
-						getDriverUser().working(true);
-						now = LocalDateTime.now();
-						later = LocalDateTime.of(LocalDate.now(), shift.getStop());
-						waitDuration = Duration.between(now, later);
-						loginOutput.appendText(String.format("Need to wait %d seconds until off work!\n", waitDuration.toSeconds()));
-						Thread.sleep(waitDuration.toMillis());
-						loginOutput.appendText("Time to leave work!\n");
-						if(isInterrupted())
-							throw new InterruptedException();
-						getDriverUser().working(false);
-					}
+					upcoming.add(new LocalDateTime[] {midnight.plusMinutes(week.getMinute(i) - dayStart), stopTime});
 				}
-				if(noShifts)
+			}
+			
+			boolean working = checkpoint.isWorking();
+			boolean underWay = !upcoming.isEmpty() && !upcoming.get(0)[0].isAfter(now);
+			if(working && !underWay)
+			{
+				transitions.add(scheduler.schedule(now, onWorker(() -> stopWork(now, false))));
+			}
+			for(int j = 0; j < upcoming.size(); j++)
+			{
+				LocalDateTime startTime = upcoming.get(j)[0];
+				LocalDateTime stopTime = upcoming.get(j)[1];
+				boolean lastOfDay = j == upcoming.size() - 1;
+				if(startTime.isAfter(now))
 				{
-					loginOutput.appendText("You do not have work today\n");
+					Duration waitDuration = Duration.between(now, startTime);
+					publish(DriverEvent.shiftWaiting(this, waitDuration, true));
+					logWait(waitDuration, "work");
+				}
+				if(j == 0 && underWay && working)
+				{
+					Duration waitDuration = Duration.between(now, stopTime);
+					publish(DriverEvent.workingSet(this, true));
+					publish(DriverEvent.shiftWaiting(this, waitDuration, false));
+					logWait(waitDuration, "off work");
 				}
 				else
 				{
-					loginOutput.appendText("We are done with the day\n");
+					// A shift already under way is started right away.
+					transitions.add(scheduler.schedule(startTime.minus(prepareEarly), onWorker(() -> prepareWork(startTime))));
+					transitions.add(scheduler.schedule(startTime.minus(submitEarly), onWorker(() -> startWork(startTime, stopTime))));
+				}
+				if(stopTime.minus(prepareEarly).isAfter(startTime))
+				{
+					transitions.add(scheduler.schedule(stopTime.minus(prepareEarly), onWorker(() -> prepareWork(stopTime))));
 				}
-				now = LocalDateTime.now();
-				later = LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.MIDNIGHT).plusSeconds(5); // Give a little time in the day
-				waitDuration = Duration.between(now, later);
-				Thread.sleep(waitDuration.toMillis());
+				transitions.add(scheduler.schedule(stopTime.minus(submitEarly), onWorker(() -> stopWork(stopTime, lastOfDay))));
 			}
+			if(upcoming.isEmpty())
+			{
+				publish(DriverEvent.dayDone(this, first < last));
+			}
+			LocalDateTime tomorrow = LocalDateTime.of(day.plusDays(1), LocalTime.MIDNIGHT).plusSeconds(5); // Give a little time in the day
+			transitions.add(scheduler.schedule(tomorrow, onWorker(() -> scheduleDay(day.plusDays(1)))));
 		}
-		catch(org.openqa.selenium.WebDriverException | DeadDriverException | DriverInterruptedException e)
+	}
+	
+	/**
+	 * Wraps a transition that runs on a thread of the scheduler, where an exception
+	 * it throws would be lost. A failure fail() does not handle
+	 * is logged, published as an error and stops the process, so the tutor
+	 * is not left waiting for days that are never scheduled.
+	 * @param action the transition
+	 * @return the wrapped transition
+	 */
+	private Runnable onWorker(Runnable action)
+	{
+		return () ->
 		{
-			reset();
-			Platform.runLater(() ->
+			try
+			{
+				action.run();
+			}
+			catch(RuntimeException e)
 			{
-				loginOutput.appendText("Error Occured\n");
-			});
+				Tutor tutor = getDriverUser();
+				Main.log(new Log("Transition failed: " + e, LogLevel.DANGER)
+						.with(LogField.NET_ID, tutor.getUsername())
+						.with(LogField.BROWSER, tutor.getBrowserType()));
+				publish(DriverEvent.error(this, String.valueOf(e.getMessage())));
+				interrupt();
+				reset();
+			}
+		};
+	}
+	
+	/**
+	 * Signs in ahead of a shift change, up to the "edit user" page. Runs on
+	 * a scheduler thread. A shift change that comes while this is still
+	 * going waits for it to finish. Does nothing if it runs so late that
+	 * the change is already due, as the change signs in by itself.
+	 * @param changeTime when the shift change is
+	 */
+	private void prepareWork(LocalDateTime changeTime)
+	{
+		try
+		{
+			synchronized(workLock)
+			{
+				if(!LocalDateTime.now(scheduler.getClock()).isBefore(changeTime))
+				{
+					return;
+				}
+				long start = System.nanoTime();
+				if(getDriverUser().prepareWorking())
+				{
+					SIGN_IN_TIMES.record(System.nanoTime() - start);
+				}
+			}
 		}
-		catch(InterruptedException e)
+		catch(RuntimeException e)
+		{
+			fail(e);
+		}
+	}
+	
+	/**
+	 * Checks if the shift change after a given one has already come. A
+	 * transition that runs that late, such as after the machine was
+	 * suspended, would undo the later change, which may have already run
+	 * on another worker.
+	 * @param changeTime when the shift change is
+	 * @param now the current time
+	 * @return true if the schedule has moved on to a later change
+	 */
+	private boolean isSuperseded(LocalDateTime changeTime, LocalDateTime now)
+	{
+		int minute = WeeklyTransitions.minuteOfWeek(changeTime);
+		int next = week.nextIndex(minute);
+		if(next < 0)
+		{
+			return false;
+		}
+		int gap = Math.floorMod(week.getMinute(next) - minute - 1, WeeklyTransitions.MINUTES_PER_WEEK) + 1;
+		return !changeTime.plusMinutes(gap).isAfter(now);
+	}
+	
+	/**
+	 * Sets the tutor to working. Runs on a scheduler thread. Does nothing
+	 * if it runs so late that the shift is already over, such as after the
+	 * machine was suspended, since the tutor should not be working then.
+	 * @param startTime when the tutor starts working
+	 * @param stopTime when the tutor stops working
+	 */
+	private void startWork(LocalDateTime startTime, LocalDateTime stopTime)
+	{
+		try
+		{
+			synchronized(workLock)
+			{
+				if(isSuperseded(startTime, LocalDateTime.now(scheduler.getClock())))
+				{
+					return;
+				}
+				if(!submit(true))
+				{
+					return;
+				}
+				Instant now = scheduler.getClock().instant();
+				saveCheckpoint(c -> c.withTransition(now, true));
+				publish(DriverEvent.workingSet(this, true));
+			}
+			Duration waitDuration = Duration.between(LocalDateTime.now(scheduler.getClock()), stopTime);
+			publish(DriverEvent.shiftWaiting(this, waitDuration, false));
+			logWait(waitDuration, "off work");
+		}
+		catch(RuntimeException e)
 		{
+			fail(e);
+		}
+	}
+	
+	/**
+	 * Sets the tutor to not working. Runs on a scheduler thread. Does
+	 * nothing if it runs so late that the next shift has already started.
+	 * @param stopTime when the tutor stops working
+	 * @param lastOfDay true if this is the end of the day's last shift
+	 */
+	private void stopWork(LocalDateTime stopTime, boolean lastOfDay)
+	{
+		try
+		{
+			synchronized(workLock)
+			{
+				if(isSuperseded(stopTime, LocalDateTime.now(scheduler.getClock())))
+				{
+					return;
+				}
+				if(!submit(false))
+				{
+					return;
+				}
+				Instant now = scheduler.getClock().instant();
+				saveCheckpoint(c -> c.withTransition(now, false));
+				publish(DriverEvent.workingSet(this, false));
+				if(lastOfDay)
+				{
+					publish(DriverEvent.dayDone(this, true));
+				}
+			}
+		}
+		catch(RuntimeException e)
+		{
+			fail(e);
+		}
+	}
+	
+	/**
+	 * Submits whether the tutor is working, timing it if the tutor was
+	 * already signed in. A submit that did not go through is reported as
+	 * an error, and the checkpoint is left as it was. Must hold the work lock.
+	 * @param work true to set the tutor as working
+	 * @return true if the tutor was set
+	 */
+	private boolean submit(boolean work)
+	{
+		Tutor tutor = getDriverUser();
+		boolean prepared = tutor.isPrepared();
+		long start = System.nanoTime();
+		if(!tutor.submitWorking(work))
+		{
+			publish(DriverEvent.error(this, work ? "Could not set working" : "Could not set not working"));
+			return false;
+		}
+		if(prepared)
+		{
+			SUBMIT_TIMES.record(System.nanoTime() - start);
+		}
+		return true;
+	}
+	
+	/**
+	 * Reports a failure and resets. Credentials turned down at a transition
+	 * are forgotten in the checkpoint and stop the process, since no later
+	 * transition can sign in either.
+	 * @param e what went wrong
+	 * @throws RuntimeException if e is not a WebDriver failure
+	 */
+	private void fail(RuntimeException e) throws RuntimeException
+	{
+		if(e instanceof InvalidCredentials)
+		{
+			saveCheckpoint(TutorCheckpoint::withoutCredentials);
+			publish(DriverEvent.credentialsChecked(this, false));
+			interrupt();
 			reset();
 		}
-		catch(IllegalStateException e)
+		else if(e instanceof org.openqa.selenium.WebDriverException || e instanceof DeadDriverException || e instanceof DriverInterruptedException)
 		{
-			Platform.runLater(() -> {
-				Main.alert("WebDrivers do not exist.\nPlease restart the program to reinstall drivers.", Alert.AlertType.ERROR);
-			});
+			publish(DriverEvent.error(this, e.getMessage()));
 			reset();
 		}
+		else if(e instanceof IllegalStateException)
+		{
+			publish(DriverEvent.driversMissing(this));
+			reset();
+		}
+		else
+		{
+			throw e;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package collin.timescreator.selenium.utils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -8,6 +9,11 @@ import java.util.List;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
+import collin.timescreator.javafx.application.Main;
+import collin.timescreator.util.Log;
+import collin.timescreator.util.LogField;
+import collin.timescreator.util.LogJournal;
+import collin.timescreator.util.LogLevel;
 import collin.timescreator.util.Procedure;
 
 /**
@@ -18,6 +24,11 @@ import collin.timescreator.util.Procedure;
  */
 public class AdvancedActions implements Iterable<AdvancedAction>
 {
+	/**
+	 * Where every performed action is traced, or null when tracing is off.
+	 */
+	private static volatile Trace trace;
+	
 	/**
 	 * Current WebDriver to interact with.
 	 */
@@ -73,6 +84,25 @@ public class AdvancedActions implements Iterable<AdvancedAction>
 		return of(null, actions);
 	}
 	
+	/**
+	 * Starts tracing every action performed by any AdvancedActions into the
+	 * given journal. Each action writes a single binary record holding its
+	 * index, so tracing costs next to nothing even on the hot path.
+	 * @param journal the journal to trace into, or null to stop tracing
+	 * @throws IOException if the trace templates could not be registered
+	 */
+	public static void setTraceJournal(LogJournal journal) throws IOException
+	{
+		if(journal == null)
+		{
+			trace = null;
+			return;
+		}
+		int step = journal.registerTemplate("Performing action {} of {}");
+		int failed = journal.registerTemplate("Action {} of {} failed");
+		trace = new Trace(journal, step, failed);
+	}
+	
 	/**
 	 * Sets the WebDriver given and initializes the actions list
 	 * to an empty list.
@@ -370,9 +400,16 @@ public class AdvancedActions implements Iterable<AdvancedAction>
 		{
 			listIter.next();
 		}
+		Trace t = trace;
+		long start = 0;
 		while(listIter.nextIndex() < to)
 		{
+			int index = listIter.nextIndex();
 			AdvancedAction action = listIter.next();
+			if(t != null)
+			{
+				t.journal.log(LogLevel.INFO, t.step, index, to);
+			}
 			try
 			{
 				if(deadAction != null && DriverUser.isDriverDead(driver))
@@ -388,13 +425,62 @@ public class AdvancedActions implements Iterable<AdvancedAction>
 					uninterrupt();
 					return;
 				}
+				start = System.nanoTime();
 				action.perform();
 			}
 			catch(org.openqa.selenium.WebDriverException e)
 			{
 				lastFailedAction = action;
+				if(Main.isLoggable(LogLevel.WARNING))
+				{
+					Main.log(new Log("Action failed: " + e.getMessage(), LogLevel.WARNING)
+							.with(LogField.ACTION_INDEX, index)
+							.with(LogField.LOCATOR, action.getBy())
+							.with(LogField.ELAPSED_NANOS, System.nanoTime() - start));
+				}
+				if(t != null)
+				{
+					t.journal.log(LogLevel.WARNING, t.failed, index, to);
+				}
 				return;
 			}
 		}
 	}
+	
+	/**
+	 * The journal actions are traced into along with the ids of its templates.
+	 * Kept together so a single volatile read gives a consistent set.
+	 * @author colli
+	 *
+	 */
+	private static final class Trace
+	{
+		/**
+		 * The journal to trace into.
+		 */
+		private final LogJournal journal;
+		
+		/**
+		 * Template id for an action about to be performed.
+		 */
+		private final int step;
+		
+		/**
+		 * Template id for an action that failed.
+		 */
+		private final int failed;
+		
+		/**
+		 * Constructor.
+		 * @param journal the journal to trace into
+		 * @param step template id for an action about to be performed
+		 * @param failed template id for an action that failed
+		 */
+		private Trace(LogJournal journal, int step, int failed)
+		{
+			this.journal = journal;
+			this.step = step;
+			this.failed = failed;
+		}
+	}
 }
@@ -0,0 +1,274 @@
+package collin.timescreator.selenium.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Something that happened while a DriverThread was running, such as its
+ * credentials being checked or the user being set to working. Events are
+ * published on a DriverEventBus so the thread does not need to know who,
+ * if anyone, is showing them.
+ * @author colli
+ *
+ */
+public final class DriverEvent
+{
+	/**
+	 * The kinds of events.
+	 * @author colli
+	 *
+	 */
+	public enum Type
+	{
+		/**
+		 * Credentials are about to be checked.
+		 */
+		CHECKING_CREDENTIALS,
+		
+		/**
+		 * Credentials were checked. The flag is true if they were correct.
+		 */
+		CREDENTIALS_CHECKED,
+		
+		/**
+		 * Waiting until a shift changes. The flag is true if the wait ends
+		 * with the user working, and the wait is how long it will take.
+		 */
+		SHIFT_WAITING,
+		
+		/**
+		 * The user was set to working or not working, given by the flag.
+		 */
+		WORKING_SET,
+		
+		/**
+		 * Every shift of the day is over. The flag is true if there were any shifts.
+		 */
+		DAY_DONE,
+		
+		/**
+		 * The WebDrivers could not be found.
+		 */
+		DRIVERS_MISSING,
+		
+		/**
+		 * Something went wrong. The message says what.
+		 */
+		ERROR,
+		
+		/**
+		 * The thread is done with its job.
+		 */
+		FINISHED;
+	}
+	
+	/**
+	 * The kind of event.
+	 */
+	private final Type type;
+	
+	/**
+	 * The thread the event happened on.
+	 */
+	private final DriverThread<?> source;
+	
+	/**
+	 * When the event happened.
+	 */
+	private final Instant time;
+	
+	/**
+	 * Meaning depends on the type.
+	 */
+	private final boolean flag;
+	
+	/**
+	 * How long is being waited, or null.
+	 */
+	private final Duration wait;
+	
+	/**
+	 * What went wrong, or null.
+	 */
+	private final String message;
+	
+	/**
+	 * Constructor.
+	 * @param type the kind of event
+	 * @param source the thread the event happened on
+	 * @param flag meaning depends on the type
+	 * @param wait how long is being waited, or null
+	 * @param message what went wrong, or null
+	 * @throws NullPointerException if the type or source is null
+	 */
+	private DriverEvent(Type type, DriverThread<?> source, boolean flag, Duration wait, String message) throws NullPointerException
+	{
+		if(type == null || source == null)
+			throw new NullPointerException();
+		this.type = type;
+		this.source = source;
+		this.time = Instant.now();
+		this.flag = flag;
+		this.wait = wait;
+		this.message = message;
+	}
+	
+	/**
+	 * Makes an event saying credentials are about to be checked.
+	 * @param source the thread checking them
+	 * @return the event
+	 */
+	public static DriverEvent checkingCredentials(DriverThread<?> source)
+	{
+		return new DriverEvent(Type.CHECKING_CREDENTIALS, source, false, null, null);
+	}
+	
+	/**
+	 * Makes an event saying credentials were checked.
+	 * @param source the thread that checked them
+	 * @param correct true if they were correct
+	 * @return the event
+	 */
+	public static DriverEvent credentialsChecked(DriverThread<?> source, boolean correct)
+	{
+		return new DriverEvent(Type.CREDENTIALS_CHECKED, source, correct, null, null);
+	}
+	
+	/**
+	 * Makes an event saying the thread is waiting until a shift changes.
+	 * @param source the thread waiting
+	 * @param wait how long it will wait
+	 * @param working true if the wait ends with the user working
+	 * @return the event
+	 */
+	public static DriverEvent shiftWaiting(DriverThread<?> source, Duration wait, boolean working)
+	{
+		return new DriverEvent(Type.SHIFT_WAITING, source, working, wait, null);
+	}
+	
+	/**
+	 * Makes an event saying the user was set to working or not working.
+	 * @param source the thread that set it
+	 * @param working true if the user is now working
+	 * @return the event
+	 */
+	public static DriverEvent workingSet(DriverThread<?> source, boolean working)
+	{
+		return new DriverEvent(Type.WORKING_SET, source, working, null, null);
+	}
+	
+	/**
+	 * Makes an event saying every shift of the day is over.
+	 * @param source the thread that ran the shifts
+	 * @param hadShifts true if there were any shifts
+	 * @return the event
+	 */
+	public static DriverEvent dayDone(DriverThread<?> source, boolean hadShifts)
+	{
+		return new DriverEvent(Type.DAY_DONE, source, hadShifts, null, null);
+	}
+	
+	/**
+	 * Makes an event saying the WebDrivers could not be found.
+	 * @param source the thread that needed them
+	 * @return the event
+	 */
+	public static DriverEvent driversMissing(DriverThread<?> source)
+	{
+		return new DriverEvent(Type.DRIVERS_MISSING, source, false, null, null);
+	}
+	
+	/**
+	 * Makes an event saying something went wrong.
+	 * @param source the thread it went wrong on
+	 * @param message what went wrong
+	 * @return the event
+	 */
+	public static DriverEvent error(DriverThread<?> source, String message)
+	{
+		return new DriverEvent(Type.ERROR, source, false, null, message);
+	}
+	
+	/**
+	 * Makes an event saying the thread is done with its job.
+	 * @param source the thread that is done
+	 * @return the event
+	 */
+	public static DriverEvent finished(DriverThread<?> source)
+	{
+		return new DriverEvent(Type.FINISHED, source, false, null, null);
+	}
+	
+	/**
+	 * Gets the kind of event.
+	 * @return the type
+	 */
+	public Type getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * Gets the thread the event happened on.
+	 * @return the source
+	 */
+	public DriverThread<?> getSource()
+	{
+		return source;
+	}
+	
+	/**
+	 * Gets when the event happened.
+	 * @return the time
+	 */
+	public Instant getTime()
+	{
+		return time;
+	}
+	
+	/**
+	 * Gets the flag of the event. See the type for what it means.
+	 * @return the flag
+	 */
+	public boolean getFlag()
+	{
+		return flag;
+	}
+	
+	/**
+	 * Gets how long is being waited.
+	 * @return the wait, or null if the event is not a wait
+	 */
+	public Duration getWait()
+	{
+		return wait;
+	}
+	
+	/**
+	 * Gets what went wrong.
+	 * @return the message, or null if there is none
+	 */
+	public String getMessage()
+	{
+		return message;
+	}
+	
+	/**
+	 * Gets the type, time and details of the event.
+	 * @return the event as a String
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder s = new StringBuilder().append(type).append(' ').append(time).append(" flag=").append(flag);
+		if(wait != null)
+		{
+			s.append(" wait=").append(wait);
+		}
+		if(message != null)
+		{
+			s.append(" message=").append(message);
+		}
+		return s.toString();
+	}
+}
@@ -0,0 +1,122 @@
+package collin.timescreator.selenium.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import collin.timescreator.javafx.application.Main;
+import collin.timescreator.util.LogLevel;
+
+/**
+ * Delivers DriverEvents to every subscribed listener. The listeners are
+ * kept in an array that is copied whenever one subscribes or unsubscribes,
+ * so publishing only reads the current array and never locks. Any number
+ * of threads may publish at once, and each one calls the listeners itself.
+ * @author colli
+ *
+ */
+public class DriverEventBus
+{
+	/**
+	 * The array used when there are no listeners.
+	 */
+	private static final DriverEventListener[] NO_LISTENERS = new DriverEventListener[0];
+	
+	/**
+	 * The current listeners. The array is never changed once set.
+	 */
+	private final AtomicReference<DriverEventListener[]> listeners;
+	
+	/**
+	 * Constructor. Starts with no listeners.
+	 */
+	public DriverEventBus()
+	{
+		listeners = new AtomicReference<DriverEventListener[]>(NO_LISTENERS);
+	}
+	
+	/**
+	 * Adds a listener that will receive every event published after this call.
+	 * @param listener the listener
+	 * @throws NullPointerException if the listener is null
+	 */
+	public void subscribe(DriverEventListener listener) throws NullPointerException
+	{
+		if(listener == null)
+			throw new NullPointerException();
+		DriverEventListener[] current;
+		DriverEventListener[] next;
+		do
+		{
+			current = listeners.get();
+			next = Arrays.copyOf(current, current.length + 1);
+			next[current.length] = listener;
+		}
+		while(!listeners.compareAndSet(current, next));
+	}
+	
+	/**
+	 * Removes a listener. An event being published at the same time may still reach it.
+	 * @param listener the listener
+	 * @return true if the listener was subscribed
+	 */
+	public boolean unsubscribe(DriverEventListener listener)
+	{
+		DriverEventListener[] current;
+		DriverEventListener[] next;
+		do
+		{
+			current = listeners.get();
+			int index = -1;
+			for(int i = 0; i < current.length; i++)
+			{
+				if(current[i] == listener)
+				{
+					index = i;
+					break;
+				}
+			}
+			if(index < 0)
+			{
+				return false;
+			}
+			next = current.length == 1 ? NO_LISTENERS : new DriverEventListener[current.length - 1];
+			System.arraycopy(current, 0, next, 0, index);
+			System.arraycopy(current, index + 1, next, index, current.length - index - 1);
+		}
+		while(!listeners.compareAndSet(current, next));
+		return true;
+	}
+	
+	/**
+	 * Gets the amount of listeners subscribed.
+	 * @return amount of listeners
+	 */
+	public int getListenerCount()
+	{
+		return listeners.get().length;
+	}
+	
+	/**
+	 * Gives an event to every listener, in the order they subscribed, on the calling thread.
+	 * A listener that throws is logged and skipped, so it cannot keep the
+	 * event from the rest or fail the thread that published it.
+	 * @param event the event
+	 * @throws NullPointerException if the event is null
+	 */
+	public void publish(DriverEvent event) throws NullPointerException
+	{
+		if(event == null)
+			throw new NullPointerException();
+		for(DriverEventListener listener : listeners.get())
+		{
+			try
+			{
+				listener.onEvent(event);
+			}
+			catch(RuntimeException e)
+			{
+				Main.log(LogLevel.DANGER, "Listener failed on {} event: {}", event.getType(), e);
+			}
+		}
+	}
+}
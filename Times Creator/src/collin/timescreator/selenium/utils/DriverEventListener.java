@@ -0,0 +1,16 @@
+package collin.timescreator.selenium.utils;
+
+/**
+ * Receives the events published on a DriverEventBus.
+ * @author colli
+ *
+ */
+public interface DriverEventListener
+{
+	/**
+	 * Called on the publishing thread for every event. Should return
+	 * quickly and never wait on another thread, such as the JavaFX thread.
+	 * @param event the event
+	 */
+	public abstract void onEvent(DriverEvent event);
+}
@@ -6,7 +6,8 @@ import collin.timescreator.util.Procedure;
  * A thread who is specifically working with a DriverUser.
  * This helps detach the main application from the Selenium
  * WebDriver to allow for the main application to work at the
- * same time.
+ * same time. It can run as an ordinary platform thread or, with
+ * start(DriverThreadMode), have its job run on a virtual thread.
  * @author colli
  *
  */
@@ -23,6 +24,17 @@ public class DriverThread<T extends DriverUser> extends Thread
 	 */
 	private Procedure resetProcedure;
 	
+	/**
+	 * Where this thread publishes what it is doing.
+	 */
+	private volatile DriverEventBus eventBus;
+	
+	/**
+	 * The thread running this thread's job when it was not started
+	 * as a platform thread, or null.
+	 */
+	private volatile Thread runner;
+	
 	/**
 	 * Sets the DriverUser to the given one
 	 * @param driver a user of a Selenium WebDriver
@@ -30,6 +42,133 @@ public class DriverThread<T extends DriverUser> extends Thread
 	public DriverThread(T driver)
 	{
 		setDriver(driver);
+		eventBus = new DriverEventBus();
+	}
+	
+	/**
+	 * Gets the bus this thread publishes its events on. Each thread
+	 * has its own bus unless it is given a shared one.
+	 * @return the event bus
+	 */
+	public DriverEventBus getEventBus()
+	{
+		return eventBus;
+	}
+	
+	/**
+	 * Sets the bus this thread publishes its events on, so many
+	 * threads can share the same listeners.
+	 * @param bus the event bus
+	 * @throws NullPointerException if the bus is null
+	 */
+	public void setEventBus(DriverEventBus bus) throws NullPointerException
+	{
+		if(bus == null)
+			throw new NullPointerException();
+		this.eventBus = bus;
+	}
+	
+	/**
+	 * Publishes an event on this thread's bus.
+	 * @param event the event
+	 */
+	protected void publish(DriverEvent event)
+	{
+		eventBus.publish(event);
+	}
+	
+	/**
+	 * Starts this thread's job on this platform thread.
+	 * @throws IllegalThreadStateException if this thread was already started, in any mode
+	 */
+	@Override
+	public synchronized void start() throws IllegalThreadStateException
+	{
+		if(runner != null)
+			throw new IllegalThreadStateException();
+		super.start();
+	}
+	
+	/**
+	 * Starts this thread's job in the given mode. PLATFORM is the same as start().
+	 * @param mode how to run the job
+	 * @throws NullPointerException if the mode is null
+	 * @throws IllegalThreadStateException if this thread was already started
+	 */
+	public void start(DriverThreadMode mode) throws NullPointerException, IllegalThreadStateException
+	{
+		if(mode == null)
+			throw new NullPointerException();
+		if(mode == DriverThreadMode.PLATFORM)
+		{
+			start();
+			return;
+		}
+		synchronized(this)
+		{
+			if(runner != null || getState() != State.NEW)
+				throw new IllegalThreadStateException();
+			runner = mode.newThread(this, getName());
+		}
+		runner.start();
+	}
+	
+	/**
+	 * Interrupts this thread, or the thread running its job.
+	 */
+	@Override
+	public void interrupt()
+	{
+		Thread r = runner;
+		if(r != null)
+		{
+			r.interrupt();
+		}
+		else
+		{
+			super.interrupt();
+		}
+	}
+	
+	/**
+	 * Checks if this thread, or the thread running its job, was interrupted.
+	 * @return true if it was interrupted
+	 */
+	@Override
+	public boolean isInterrupted()
+	{
+		Thread r = runner;
+		return r != null ? r.isInterrupted() : super.isInterrupted();
+	}
+	
+	/**
+	 * Checks if this thread's job is still running, in whichever mode it was started.
+	 * @return true if it is running
+	 */
+	public boolean isRunning()
+	{
+		Thread r = runner;
+		return r != null ? r.isAlive() : isAlive();
+	}
+	
+	/**
+	 * Waits for this thread's job to finish, in whichever mode it was started.
+	 * @param millis the most time to wait, or 0 to wait forever
+	 * @return true if the job finished
+	 * @throws InterruptedException if the waiting thread was interrupted
+	 */
+	public boolean awaitTermination(long millis) throws InterruptedException
+	{
+		Thread r = runner;
+		if(r != null)
+		{
+			r.join(millis);
+		}
+		else
+		{
+			join(millis);
+		}
+		return !isRunning();
 	}
 	
 	/**
@@ -112,9 +251,11 @@ public class DriverThread<T extends DriverUser> extends Thread
 	/**
 	 * A method that is to be used when this current DriverThread
 	 * is done and certain elements on the GUI application needs to be reset.
+	 * Publishes a finished event before running the reset procedure.
 	 */
 	protected void reset()
 	{
+		publish(DriverEvent.finished(this));
 		if(resetProcedure != null)
 			resetProcedure.run();
 	}
@@ -0,0 +1,113 @@
+package collin.timescreator.selenium.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How a DriverThread, and the shift transitions it schedules, run their
+ * work. Both spend nearly all of their time blocked on WebDriver calls and
+ * waits, which is what virtual threads are cheap at. Virtual threads only exist on newer runtimes, so
+ * they are looked up by reflection, and VIRTUAL falls back to a platform
+ * thread where they are missing.
+ * @author colli
+ *
+ */
+public enum DriverThreadMode
+{
+	/**
+	 * The DriverThread itself runs as an ordinary platform thread.
+	 */
+	PLATFORM,
+	
+	/**
+	 * The job of the DriverThread runs on a virtual thread.
+	 */
+	VIRTUAL;
+	
+	/**
+	 * Thread.ofVirtual(), or null if this runtime has no virtual threads.
+	 */
+	private static final Method OF_VIRTUAL;
+	
+	/**
+	 * Thread.Builder.unstarted(Runnable), or null if this runtime has no virtual threads.
+	 */
+	private static final Method UNSTARTED;
+	
+	static
+	{
+		Method ofVirtual = null;
+		Method unstarted = null;
+		try
+		{
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+		}
+		catch(ReflectiveOperationException e)
+		{
+			ofVirtual = null;
+			unstarted = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		UNSTARTED = unstarted;
+	}
+	
+	/**
+	 * Checks if this runtime has virtual threads.
+	 * @return true if VIRTUAL really uses virtual threads
+	 */
+	public static boolean isVirtualSupported()
+	{
+		return UNSTARTED != null;
+	}
+	
+	/**
+	 * Makes an unstarted thread in this mode that runs the given job.
+	 * @param job what the thread runs
+	 * @param name the name of the thread
+	 * @return the thread
+	 */
+	Thread newThread(Runnable job, String name)
+	{
+		if(this == VIRTUAL && UNSTARTED != null)
+		{
+			try
+			{
+				Thread t = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), job);
+				t.setName(name);
+				return t;
+			}
+			catch(ReflectiveOperationException e)
+			{
+				// Fall through to a platform thread.
+			}
+		}
+		return new Thread(job, name);
+	}
+	
+	/**
+	 * Makes a dispatcher that starts a new thread in this mode for every
+	 * job it is given, such as for a ShiftScheduler to run each transition
+	 * on. Its threads do not keep the program running.
+	 * @param name the start of each thread's name
+	 * @return the dispatcher
+	 * @throws NullPointerException if the name is null
+	 */
+	public Executor dispatcher(String name) throws NullPointerException
+	{
+		if(name == null)
+			throw new NullPointerException();
+		AtomicInteger count = new AtomicInteger();
+		return job ->
+		{
+			Thread t = newThread(job, name + " " + count.incrementAndGet());
+			if(!t.isDaemon())
+			{
+				// Virtual threads are always daemons and refuse to be set.
+				t.setDaemon(true);
+			}
+			t.start();
+		};
+	}
+}
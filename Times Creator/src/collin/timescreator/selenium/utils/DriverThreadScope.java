@@ -0,0 +1,153 @@
+package collin.timescreator.selenium.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts DriverThreads that cannot outlive it. Closing the scope stops
+ * every thread it started, closing its WebDriver, and waits for them
+ * all to finish, so a block such as
+ * <pre>
+ * try(DriverThreadScope scope = new DriverThreadScope(DriverThreadMode.VIRTUAL))
+ * {
+ *     for(...)
+ *         scope.fork(new FireflyThread(...));
+ *     scope.join();
+ * }
+ * </pre>
+ * never leaves a session behind, even when it throws.
+ * @author colli
+ *
+ */
+public class DriverThreadScope implements AutoCloseable
+{
+	/**
+	 * How the threads are started.
+	 */
+	private final DriverThreadMode mode;
+	
+	/**
+	 * Every thread started in the scope. Guarded by itself.
+	 */
+	private final List<DriverThread<?>> threads;
+	
+	/**
+	 * Whether the scope was closed. Guarded by threads.
+	 */
+	private boolean closed;
+	
+	/**
+	 * Constructor.
+	 * @param mode how to start the threads
+	 * @throws NullPointerException if the mode is null
+	 */
+	public DriverThreadScope(DriverThreadMode mode) throws NullPointerException
+	{
+		if(mode == null)
+			throw new NullPointerException();
+		this.mode = mode;
+		threads = new ArrayList<DriverThread<?>>();
+	}
+	
+	/**
+	 * Starts a thread in this scope.
+	 * @param thread an unstarted thread
+	 * @return the thread
+	 * @throws IllegalStateException if the scope was closed
+	 */
+	public <D extends DriverThread<?>> D fork(D thread) throws IllegalStateException
+	{
+		synchronized(threads)
+		{
+			if(closed)
+				throw new IllegalStateException("Scope is closed");
+			threads.add(thread);
+		}
+		thread.start(mode);
+		return thread;
+	}
+	
+	/**
+	 * Gets the amount of threads of this scope still running.
+	 * @return amount of threads running
+	 */
+	public int getRunningCount()
+	{
+		int running = 0;
+		for(DriverThread<?> t : snapshot())
+		{
+			if(t.isRunning())
+			{
+				running++;
+			}
+		}
+		return running;
+	}
+	
+	/**
+	 * Waits for every thread of this scope to finish.
+	 * @throws InterruptedException if the waiting thread was interrupted
+	 */
+	public void join() throws InterruptedException
+	{
+		for(DriverThread<?> t : snapshot())
+		{
+			t.awaitTermination(0);
+		}
+	}
+	
+	/**
+	 * Stops every thread of this scope, running or not, closing its
+	 * WebDriver, and waits for them to finish.
+	 * If the waiting thread is interrupted it keeps waiting, and is
+	 * interrupted again once every thread is done.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized(threads)
+		{
+			closed = true;
+		}
+		List<DriverThread<?>> all = snapshot();
+		// Threads whose job has returned may still have work scheduled, so every one is stopped.
+		for(DriverThread<?> t : all)
+		{
+			t.interrupt();
+			t.getDriverUser().closeDriver();
+		}
+		
+		boolean interrupted = false;
+		for(DriverThread<?> t : all)
+		{
+			while(true)
+			{
+				try
+				{
+					t.awaitTermination(0);
+					break;
+				}
+				catch(InterruptedException e)
+				{
+					interrupted = true;
+				}
+			}
+		}
+		if(interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Copies the threads of this scope.
+	 * @return the threads
+	 */
+	private List<DriverThread<?>> snapshot()
+	{
+		synchronized(threads)
+		{
+			return new ArrayList<DriverThread<?>>(threads);
+		}
+	}
+}
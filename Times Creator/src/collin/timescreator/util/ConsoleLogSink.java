@@ -0,0 +1,79 @@
+package collin.timescreator.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A LogSink that prints logs to stdout.
+ * @author colli
+ *
+ */
+public class ConsoleLogSink implements LogSink
+{
+	/**
+	 * Formats each log before it is printed.
+	 */
+	private LogFormatter formatter;
+	
+	/**
+	 * Reusable bytes for a whole batch of logs.
+	 */
+	private final LogBuffer buffer;
+	
+	/**
+	 * Constructor. Prints logs in the plain text format.
+	 */
+	public ConsoleLogSink()
+	{
+		this(new TextLogFormatter());
+	}
+	
+	/**
+	 * Constructor. Prints logs using the given formatter.
+	 * @param formatter formatter for each log
+	 * @throws NullPointerException if the given formatter is null
+	 */
+	public ConsoleLogSink(LogFormatter formatter) throws NullPointerException
+	{
+		if(formatter == null)
+		{
+			throw new NullPointerException();
+		}
+		this.formatter = formatter;
+		buffer = new LogBuffer();
+	}
+	
+	/**
+	 * Prints the whole batch of logs with a single write to stdout.
+	 * @param logs logs ordered from oldest to newest
+	 * @throws IOException if stdout could not be written to
+	 */
+	@Override
+	public void write(List<Log> logs) throws IOException
+	{
+		buffer.clear();
+		for(Log l : logs)
+		{
+			formatter.format(l, buffer);
+		}
+		buffer.writeTo(System.out);
+	}
+	
+	/**
+	 * Flushes stdout.
+	 */
+	@Override
+	public void flush()
+	{
+		System.out.flush();
+	}
+	
+	/**
+	 * Flushes stdout. Stdout itself is left open.
+	 */
+	@Override
+	public void close()
+	{
+		flush();
+	}
+}
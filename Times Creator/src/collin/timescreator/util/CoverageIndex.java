@@ -0,0 +1,440 @@
+package collin.timescreator.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which tutors are scheduled at each minute of the week, for a whole
+ * roster. Each tutor's week is a bitmap of 10,080 bits, one per minute
+ * counted from Monday at midnight, set while one of their shifts is under
+ * way. Alongside, the index keeps how many tutors are scheduled at each
+ * minute and a bitmap of the minutes anyone is scheduled, so asking how
+ * many tutors are on at a minute is one array read, and ranges, unions
+ * and intersections work on 64 minutes at a time.
+ * <p>
+ * Adding, replacing or removing a tutor only touches the minutes their
+ * schedule changes. Safe to use from many threads.
+ * @author colli
+ *
+ */
+public class CoverageIndex
+{
+	/**
+	 * Bits in a bitmap, one per minute of the week.
+	 */
+	public static final int BITS = WeeklyTransitions.MINUTES_PER_WEEK;
+	
+	/**
+	 * Words in a bitmap.
+	 */
+	public static final int WORDS = (BITS + Long.SIZE - 1) / Long.SIZE;
+	
+	/**
+	 * Each tutor's bitmap. Guarded by this.
+	 */
+	private final Map<String, long[]> tutors;
+	
+	/**
+	 * How many tutors are scheduled at each minute. Guarded by this.
+	 */
+	private final int[] counts;
+	
+	/**
+	 * The minutes at least one tutor is scheduled. Guarded by this.
+	 */
+	private final long[] covered;
+	
+	/**
+	 * Constructor. Starts with no tutors.
+	 */
+	public CoverageIndex()
+	{
+		tutors = new HashMap<String, long[]>();
+		counts = new int[BITS];
+		covered = new long[WORDS];
+	}
+	
+	/**
+	 * Makes the bitmap of a week of shifts. A shift covers the minutes
+	 * from its start up to, but not including, its stop.
+	 * @param schedule the shifts
+	 * @return the bitmap
+	 * @throws NullPointerException if the schedule is null
+	 */
+	public static long[] toBitmap(WeekSchedule schedule) throws NullPointerException
+	{
+		long[] bitmap = new long[WORDS];
+		schedule.forEachShift((day, start, stop) ->
+		{
+			int base = (day.getValue() - 1) * WeeklyTransitions.MINUTES_PER_DAY;
+			setRange(bitmap, base + start, base + stop);
+		});
+		return bitmap;
+	}
+	
+	/**
+	 * Sets the bits of a range.
+	 * @param bitmap the bitmap
+	 * @param from the first bit
+	 * @param to the bit after the last
+	 */
+	private static void setRange(long[] bitmap, int from, int to)
+	{
+		if(from >= to)
+		{
+			return;
+		}
+		int first = from >>> 6;
+		int last = (to - 1) >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> -to;
+		if(first == last)
+		{
+			bitmap[first] |= firstMask & lastMask;
+			return;
+		}
+		bitmap[first] |= firstMask;
+		for(int i = first + 1; i < last; i++)
+		{
+			bitmap[i] = -1L;
+		}
+		bitmap[last] |= lastMask;
+	}
+	
+	/**
+	 * Counts the set bits of a bitmap in a range.
+	 * @param bitmap the bitmap
+	 * @param from the first bit
+	 * @param to the bit after the last
+	 * @return amount of bits set
+	 * @throws IndexOutOfBoundsException if the range is not within the week
+	 */
+	public static int cardinality(long[] bitmap, int from, int to) throws IndexOutOfBoundsException
+	{
+		checkRange(from, to);
+		if(from == to)
+		{
+			return 0;
+		}
+		int first = from >>> 6;
+		int last = (to - 1) >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> -to;
+		if(first == last)
+		{
+			return Long.bitCount(bitmap[first] & firstMask & lastMask);
+		}
+		int count = Long.bitCount(bitmap[first] & firstMask);
+		for(int i = first + 1; i < last; i++)
+		{
+			count += Long.bitCount(bitmap[i]);
+		}
+		return count + Long.bitCount(bitmap[last] & lastMask);
+	}
+	
+	/**
+	 * Finds the first set bit of a bitmap at or after a bit.
+	 * @param bitmap the bitmap
+	 * @param from the bit to start at
+	 * @return the set bit, or -1 if there is none before the end of the week
+	 */
+	public static int nextSetBit(long[] bitmap, int from)
+	{
+		if(from < 0)
+		{
+			from = 0;
+		}
+		if(from >= BITS)
+		{
+			return -1;
+		}
+		int i = from >>> 6;
+		long word = bitmap[i] & (-1L << from);
+		while(word == 0)
+		{
+			if(++i == WORDS)
+			{
+				return -1;
+			}
+			word = bitmap[i];
+		}
+		int bit = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+		return bit < BITS ? bit : -1;
+	}
+	
+	/**
+	 * Finds the first clear bit of a bitmap at or after a bit.
+	 * @param bitmap the bitmap
+	 * @param from the bit to start at
+	 * @return the clear bit, or -1 if there is none before the end of the week
+	 */
+	public static int nextClearBit(long[] bitmap, int from)
+	{
+		if(from < 0)
+		{
+			from = 0;
+		}
+		if(from >= BITS)
+		{
+			return -1;
+		}
+		int i = from >>> 6;
+		long word = ~bitmap[i] & (-1L << from);
+		while(word == 0)
+		{
+			if(++i == WORDS)
+			{
+				return -1;
+			}
+			word = ~bitmap[i];
+		}
+		int bit = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+		return bit < BITS ? bit : -1;
+	}
+	
+	/**
+	 * Checks that a range is within the week.
+	 * @param from the first minute
+	 * @param to the minute after the last
+	 * @throws IndexOutOfBoundsException if the range is not within the week
+	 */
+	private static void checkRange(int from, int to) throws IndexOutOfBoundsException
+	{
+		if(from < 0 || to > BITS || from > to)
+			throw new IndexOutOfBoundsException(from + "-" + to);
+	}
+	
+	/**
+	 * Adds a tutor, or replaces their schedule if they were already added.
+	 * @param tutor who the tutor is, such as their netID
+	 * @param schedule the tutor's shifts
+	 * @throws NullPointerException if either argument is null
+	 */
+	public void put(String tutor, WeekSchedule schedule) throws NullPointerException
+	{
+		if(tutor == null)
+			throw new NullPointerException();
+		long[] bitmap = toBitmap(schedule);
+		synchronized(this)
+		{
+			long[] old = tutors.put(tutor, bitmap);
+			update(old, bitmap);
+		}
+	}
+	
+	/**
+	 * Removes a tutor.
+	 * @param tutor who the tutor is
+	 * @return true if the tutor was in the index
+	 */
+	public synchronized boolean remove(String tutor)
+	{
+		long[] old = tutors.remove(tutor);
+		if(old == null)
+		{
+			return false;
+		}
+		update(old, null);
+		return true;
+	}
+	
+	/**
+	 * Updates the counts and covered minutes for a tutor whose bitmap changed.
+	 * Only the words that differ are looked at. Must hold this.
+	 * @param old the old bitmap, or null if the tutor is new
+	 * @param bitmap the new bitmap, or null if the tutor was removed
+	 */
+	private void update(long[] old, long[] bitmap)
+	{
+		for(int i = 0; i < WORDS; i++)
+		{
+			long before = old == null ? 0 : old[i];
+			long after = bitmap == null ? 0 : bitmap[i];
+			for(long added = after & ~before; added != 0; added &= added - 1)
+			{
+				int minute = i * Long.SIZE + Long.numberOfTrailingZeros(added);
+				if(counts[minute]++ == 0)
+				{
+					covered[i] |= added & -added;
+				}
+			}
+			for(long removed = before & ~after; removed != 0; removed &= removed - 1)
+			{
+				int minute = i * Long.SIZE + Long.numberOfTrailingZeros(removed);
+				if(--counts[minute] == 0)
+				{
+					covered[i] &= ~(removed & -removed);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gets the amount of tutors in the index.
+	 * @return amount of tutors
+	 */
+	public synchronized int getTutorCount()
+	{
+		return tutors.size();
+	}
+	
+	/**
+	 * Checks if a tutor is in the index.
+	 * @param tutor who the tutor is
+	 * @return true if the tutor was added
+	 */
+	public synchronized boolean contains(String tutor)
+	{
+		return tutors.containsKey(tutor);
+	}
+	
+	/**
+	 * Gets how many tutors are scheduled at a minute.
+	 * @param minuteOfWeek minutes since Monday at midnight
+	 * @return amount of tutors
+	 * @throws IndexOutOfBoundsException if the minute is not within the week
+	 */
+	public synchronized int countAt(int minuteOfWeek) throws IndexOutOfBoundsException
+	{
+		return counts[minuteOfWeek];
+	}
+	
+	/**
+	 * Gets how many tutors are scheduled at a time of a day.
+	 * @param day the day
+	 * @param time the time of the day
+	 * @return amount of tutors
+	 * @throws NullPointerException if either argument is null
+	 */
+	public int countAt(DayOfWeek day, LocalTime time) throws NullPointerException
+	{
+		return countAt(WeeklyTransitions.minuteOfWeek(day, time));
+	}
+	
+	/**
+	 * Checks if a tutor is scheduled at a minute.
+	 * @param tutor who the tutor is
+	 * @param minuteOfWeek minutes since Monday at midnight
+	 * @return true if the tutor is in the index and scheduled then
+	 * @throws IndexOutOfBoundsException if the minute is not within the week
+	 */
+	public synchronized boolean isScheduled(String tutor, int minuteOfWeek) throws IndexOutOfBoundsException
+	{
+		if(minuteOfWeek < 0 || minuteOfWeek >= BITS)
+			throw new IndexOutOfBoundsException(String.valueOf(minuteOfWeek));
+		long[] bitmap = tutors.get(tutor);
+		return bitmap != null && (bitmap[minuteOfWeek >>> 6] & 1L << minuteOfWeek) != 0;
+	}
+	
+	/**
+	 * Gets how many minutes of a range a tutor is scheduled for.
+	 * @param tutor who the tutor is
+	 * @param from the first minute of the week
+	 * @param to the minute after the last
+	 * @return amount of minutes, 0 if the tutor is not in the index
+	 * @throws IndexOutOfBoundsException if the range is not within the week
+	 */
+	public synchronized int scheduledMinutes(String tutor, int from, int to) throws IndexOutOfBoundsException
+	{
+		long[] bitmap = tutors.get(tutor);
+		if(bitmap == null)
+		{
+			checkRange(from, to);
+			return 0;
+		}
+		return cardinality(bitmap, from, to);
+	}
+	
+	/**
+	 * Gets how many minutes of a range at least one tutor is scheduled for.
+	 * @param from the first minute of the week
+	 * @param to the minute after the last
+	 * @return amount of minutes covered
+	 * @throws IndexOutOfBoundsException if the range is not within the week
+	 */
+	public synchronized int coveredMinutes(int from, int to) throws IndexOutOfBoundsException
+	{
+		return cardinality(covered, from, to);
+	}
+	
+	/**
+	 * Finds the next minute no tutor is scheduled.
+	 * @param from the minute of the week to start at
+	 * @return the minute, or -1 if the rest of the week is covered
+	 */
+	public synchronized int nextGap(int from)
+	{
+		return nextClearBit(covered, from);
+	}
+	
+	/**
+	 * Finds the next minute at least one tutor is scheduled, such as the end of a gap.
+	 * @param from the minute of the week to start at
+	 * @return the minute, or -1 if no one is scheduled for the rest of the week
+	 */
+	public synchronized int nextCovered(int from)
+	{
+		return nextSetBit(covered, from);
+	}
+	
+	/**
+	 * Gets the minutes at least one tutor is scheduled.
+	 * @return a copy of the bitmap
+	 */
+	public synchronized long[] getCovered()
+	{
+		return covered.clone();
+	}
+	
+	/**
+	 * Gets the minutes any of some tutors are scheduled.
+	 * Tutors not in the index are skipped.
+	 * @param group who the tutors are
+	 * @return the bitmap
+	 */
+	public synchronized long[] union(Collection<String> group)
+	{
+		long[] result = new long[WORDS];
+		for(String tutor : group)
+		{
+			long[] bitmap = tutors.get(tutor);
+			if(bitmap != null)
+			{
+				for(int i = 0; i < WORDS; i++)
+				{
+					result[i] |= bitmap[i];
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Gets the minutes all of some tutors are scheduled.
+	 * A tutor not in the index is scheduled at no minute.
+	 * @param group who the tutors are
+	 * @return the bitmap, empty if the group is empty
+	 */
+	public synchronized long[] intersection(Collection<String> group)
+	{
+		long[] result = new long[WORDS];
+		boolean first = true;
+		for(String tutor : group)
+		{
+			long[] bitmap = tutors.get(tutor);
+			if(bitmap == null)
+			{
+				return new long[WORDS];
+			}
+			for(int i = 0; i < WORDS; i++)
+			{
+				result[i] = first ? bitmap[i] : result[i] & bitmap[i];
+			}
+			first = false;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,178 @@
+package collin.timescreator.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats each log as a single line of JSON, so the log files can be read
+ * by tools that index JSON lines. Every log becomes an object holding its
+ * time, sequence number, level, source and message followed by its fields, with
+ * number fields written as JSON numbers.
+ * @author colli
+ *
+ */
+public class JsonLinesLogFormatter implements LogFormatter
+{
+	/**
+	 * Hex digits for escaping control characters.
+	 */
+	private static final byte[] HEX = ascii("0123456789abcdef");
+	
+	/**
+	 * The start of every object, up to the time.
+	 */
+	private static final byte[] TIME = ascii("{\"time\":\"");
+	
+	/**
+	 * Text between the time and the sequence number.
+	 */
+	private static final byte[] SEQ = ascii("\",\"seq\":");
+	
+	/**
+	 * The level and the start of the source, by level ordinal.
+	 */
+	private static final byte[][] LEVELS = new byte[LogLevel.values().length][];
+	
+	/**
+	 * Text before the message.
+	 */
+	private static final byte[] MESSAGE = ascii(",\"message\":");
+	
+	/**
+	 * Text before the occurrences of a log standing in for repeats.
+	 */
+	private static final byte[] OCCURRENCES = ascii(",\"occurrences\":");
+	
+	/**
+	 * Text before the time of the last repeat.
+	 */
+	private static final byte[] LAST_TIME = ascii(",\"lastTime\":\"");
+	
+	/**
+	 * The quoted key of each field followed by a colon, by field ordinal.
+	 */
+	private static final byte[][] KEYS = new byte[LogField.values().length][];
+	
+	/**
+	 * The end of every object.
+	 */
+	private static final byte[] END = ascii("}\n");
+	
+	/**
+	 * Text for a missing string.
+	 */
+	private static final byte[] NULL = ascii("null");
+	
+	static
+	{
+		for(LogLevel level : LogLevel.values())
+		{
+			LEVELS[level.ordinal()] = ascii(",\"level\":\"" + level + "\",\"source\":");
+		}
+		for(LogField field : LogField.values())
+		{
+			KEYS[field.ordinal()] = ascii(",\"" + field.getKey() + "\":");
+		}
+	}
+	
+	/**
+	 * Writes the time of each log.
+	 */
+	private final LogTimestamp timestamp = new LogTimestamp();
+	
+	/**
+	 * Appends the log as one JSON object followed by a new line.
+	 * @param l the log to format
+	 * @param out where to append the text
+	 */
+	@Override
+	public void format(Log l, LogBuffer out)
+	{
+		out.append(TIME);
+		timestamp.append(l.getTime(), out);
+		out.append(SEQ).append(l.getSequence());
+		out.append(LEVELS[l.getLogLevel().ordinal()]);
+		appendString(out, l.getSource());
+		out.append(MESSAGE);
+		appendString(out, l.getMessage());
+		if(l.getOccurrences() > 1)
+		{
+			out.append(OCCURRENCES).append(l.getOccurrences());
+			out.append(LAST_TIME);
+			timestamp.append(l.getLastTime(), out);
+			out.append((byte) '"');
+		}
+		for(int i = 0; i < l.getFieldCount(); i++)
+		{
+			LogField field = l.getField(i);
+			out.append(KEYS[field.ordinal()]);
+			if(field.getType() == LogField.Type.NUMBER)
+			{
+				out.append(l.getNumberValue(i));
+			}
+			else
+			{
+				appendString(out, l.getStringValue(i));
+			}
+		}
+		out.append(END);
+	}
+	
+	/**
+	 * Appends text as a quoted JSON string. Runs of characters that need no
+	 * escaping are encoded in one go.
+	 * @param out where to append the string
+	 * @param s the text, or null to append a JSON null
+	 */
+	private static void appendString(LogBuffer out, String s)
+	{
+		if(s == null)
+		{
+			out.append(NULL);
+			return;
+		}
+		out.append((byte) '"');
+		int start = 0;
+		for(int i = 0; i < s.length(); i++)
+		{
+			char c = s.charAt(i);
+			if(c >= 0x20 && c != '"' && c != '\\')
+			{
+				continue;
+			}
+			out.append(s, start, i);
+			start = i + 1;
+			out.append((byte) '\\');
+			switch(c)
+			{
+				case '"':
+				case '\\':
+					out.append((byte) c);
+					break;
+				case '\n':
+					out.append((byte) 'n');
+					break;
+				case '\r':
+					out.append((byte) 'r');
+					break;
+				case '\t':
+					out.append((byte) 't');
+					break;
+				default:
+					out.append((byte) 'u').append((byte) '0').append((byte) '0')
+						.append(HEX[c >> 4]).append(HEX[c & 0xF]);
+					break;
+			}
+		}
+		out.append(s, start, s.length()).append((byte) '"');
+	}
+	
+	/**
+	 * Encodes text that is known to be ASCII.
+	 * @param s the text
+	 * @return the bytes of the text
+	 */
+	private static byte[] ascii(String s)
+	{
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+}
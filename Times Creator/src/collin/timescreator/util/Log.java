@@ -1,6 +1,8 @@
 package collin.timescreator.util;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A log entry that stores its creation time for log purposes.
@@ -9,6 +11,12 @@ import java.time.Instant;
  */
 public class Log implements Cloneable, Comparable<Log>
 {
+	/**
+	 * Source of sequence numbers. Every log created receives the next 
+	 * number, so logs created in the same instant still have a total order.
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+	
 	/**
 	 * The message of this log.
 	 */
@@ -24,6 +32,48 @@ public class Log implements Cloneable, Comparable<Log>
 	 */
 	private Instant time;
 	
+	/**
+	 * The order in which this log was created, relative to all other logs.
+	 */
+	private long sequence;
+	
+	/**
+	 * The name of the thread that created this log.
+	 */
+	private String source;
+	
+	/**
+	 * How many times this log's message happened. More than one when
+	 * this log stands in for repeats that the Logger suppressed.
+	 */
+	private long occurrences;
+	
+	/**
+	 * The time of the last repeat this log stands in for.
+	 */
+	private Instant lastTime;
+	
+	/**
+	 * The fields this log carries, in the order they were added.
+	 * Null until the first field is added.
+	 */
+	private LogField[] fields;
+	
+	/**
+	 * The values of string fields, by the index of their field.
+	 */
+	private String[] stringValues;
+	
+	/**
+	 * The values of number fields, by the index of their field.
+	 */
+	private long[] numberValues;
+	
+	/**
+	 * The amount of fields this log carries.
+	 */
+	private int fieldCount;
+	
 	/**
 	 * Constructor. Initializes message, log level, and records 
 	 * its current moment in time.
@@ -32,11 +82,47 @@ public class Log implements Cloneable, Comparable<Log>
 	 */
 	public Log(String message, LogLevel level)
 	{
+		sequence = SEQUENCE.getAndIncrement();
 		time = Instant.now();
+		lastTime = time;
+		occurrences = 1;
+		source = Thread.currentThread().getName();
 		setMessage(message);
 		setLogLevel(level);
 	}
 	
+	/**
+	 * Constructor for a log that stands in for a run of repeats. Copies the
+	 * first repeat, keeping its time, and records how many repeats there were.
+	 * @param first the first log of the run
+	 * @param occurrences the amount of logs in the run
+	 * @param lastTime the time of the last log of the run
+	 */
+	Log(Log first, long occurrences, Instant lastTime)
+	{
+		this(first.message, first.level);
+		time = first.time;
+		source = first.source;
+		if(first.fields != null)
+		{
+			fields = first.fields.clone();
+			stringValues = first.stringValues.clone();
+			numberValues = first.numberValues.clone();
+			fieldCount = first.fieldCount;
+		}
+		this.occurrences = occurrences;
+		this.lastTime = lastTime;
+	}
+	
+	/**
+	 * Sets the name of where this log came from.
+	 * @param source a name, usually of a thread
+	 */
+	public void setSource(String source)
+	{
+		this.source = source;
+	}
+	
 	/**
 	 * Sets this current log's message.
 	 * @param message a message for this log.
@@ -82,6 +168,204 @@ public class Log implements Cloneable, Comparable<Log>
 		return time;
 	}
 	
+	/**
+	 * Retrieves where this log came from. By default this is the name
+	 * of the thread that created it.
+	 * @return a name
+	 */
+	public String getSource()
+	{
+		return source;
+	}
+	
+	/**
+	 * Retrieves how many times this log's message happened. This is only
+	 * more than one for a log standing in for suppressed repeats, where it
+	 * counts the whole run including its first log, which was already
+	 * logged on its own when it happened.
+	 * @return amount of occurrences
+	 */
+	public long getOccurrences()
+	{
+		return occurrences;
+	}
+	
+	/**
+	 * Retrieves the time of the last repeat this log stands in for. This is
+	 * the same as its time unless it stands in for suppressed repeats.
+	 * @return an Instant time
+	 */
+	public Instant getLastTime()
+	{
+		return lastTime;
+	}
+	
+	/**
+	 * Retrieves this log's sequence number. Logs created later always 
+	 * have a greater sequence number.
+	 * @return a sequence number
+	 */
+	public long getSequence()
+	{
+		return sequence;
+	}
+	
+	/**
+	 * Adds a string field to this log, replacing any value it already had.
+	 * @param field a string field
+	 * @param value the value of the field
+	 * @return itself
+	 * @throws NullPointerException if the field or value is null
+	 * @throws IllegalArgumentException if the field does not hold strings
+	 */
+	public Log with(LogField field, String value) throws NullPointerException, IllegalArgumentException
+	{
+		if(field == null || value == null)
+			throw new NullPointerException();
+		if(field.getType() != LogField.Type.STRING)
+			throw new IllegalArgumentException(field.toString());
+		int index = slot(field);
+		stringValues[index] = value;
+		return this;
+	}
+	
+	/**
+	 * Adds a number field to this log, replacing any value it already had.
+	 * @param field a number field
+	 * @param value the value of the field
+	 * @return itself
+	 * @throws NullPointerException if the field is null
+	 * @throws IllegalArgumentException if the field does not hold numbers
+	 */
+	public Log with(LogField field, long value) throws NullPointerException, IllegalArgumentException
+	{
+		if(field == null)
+			throw new NullPointerException();
+		if(field.getType() != LogField.Type.NUMBER)
+			throw new IllegalArgumentException(field.toString());
+		int index = slot(field);
+		numberValues[index] = value;
+		return this;
+	}
+	
+	/**
+	 * Adds a string field to this log using the text of the given value,
+	 * such as a By locator or a BrowserType.
+	 * @param field a string field
+	 * @param value the value of the field
+	 * @return itself
+	 * @throws NullPointerException if the field or value is null
+	 * @throws IllegalArgumentException if the field does not hold strings
+	 */
+	public Log with(LogField field, Object value) throws NullPointerException, IllegalArgumentException
+	{
+		if(value == null)
+			throw new NullPointerException();
+		return with(field, value.toString());
+	}
+	
+	/**
+	 * Gets the amount of fields this log carries.
+	 * @return amount of fields
+	 */
+	public int getFieldCount()
+	{
+		return fieldCount;
+	}
+	
+	/**
+	 * Gets a field this log carries.
+	 * @param index the index of the field, in the order fields were added
+	 * @return a field
+	 * @throws IndexOutOfBoundsException if there is no field at the index
+	 */
+	public LogField getField(int index) throws IndexOutOfBoundsException
+	{
+		checkFieldIndex(index);
+		return fields[index];
+	}
+	
+	/**
+	 * Gets the value of a string field this log carries.
+	 * @param index the index of the field
+	 * @return the value, or null if the field holds numbers
+	 * @throws IndexOutOfBoundsException if there is no field at the index
+	 */
+	public String getStringValue(int index) throws IndexOutOfBoundsException
+	{
+		checkFieldIndex(index);
+		return stringValues[index];
+	}
+	
+	/**
+	 * Gets the value of a number field this log carries.
+	 * @param index the index of the field
+	 * @return the value, or 0 if the field holds strings
+	 * @throws IndexOutOfBoundsException if there is no field at the index
+	 */
+	public long getNumberValue(int index) throws IndexOutOfBoundsException
+	{
+		checkFieldIndex(index);
+		return numberValues[index];
+	}
+	
+	/**
+	 * Finds where a field is in this log.
+	 * @param field a field
+	 * @return the index of the field, or -1 if this log does not carry it
+	 */
+	public int indexOf(LogField field)
+	{
+		for(int i = 0; i < fieldCount; i++)
+		{
+			if(fields[i] == field)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Gets the index to store a field's value at, adding the field
+	 * if this log does not carry it yet.
+	 * @param field a field
+	 * @return the index of the field
+	 */
+	private int slot(LogField field)
+	{
+		int index = indexOf(field);
+		if(index >= 0)
+		{
+			return index;
+		}
+		if(fields == null)
+		{
+			fields = new LogField[4];
+			stringValues = new String[4];
+			numberValues = new long[4];
+		}
+		else if(fieldCount == fields.length)
+		{
+			fields = Arrays.copyOf(fields, fieldCount * 2);
+			stringValues = Arrays.copyOf(stringValues, fieldCount * 2);
+			numberValues = Arrays.copyOf(numberValues, fieldCount * 2);
+		}
+		fields[fieldCount] = field;
+		return fieldCount++;
+	}
+	
+	/**
+	 * Makes sure a field exists at the given index.
+	 * @param index the index of a field
+	 * @throws IndexOutOfBoundsException if there is no field at the index
+	 */
+	private void checkFieldIndex(int index) throws IndexOutOfBoundsException
+	{
+		if(index < 0 || index >= fieldCount)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+	}
+	
 	/**
 	 * Deep copy of this log. Even the time is copied over.
 	 */
@@ -98,33 +382,52 @@ public class Log implements Cloneable, Comparable<Log>
 		}
 		cloned.setMessage(new String(getMessage()));
 		cloned.time = Instant.from(this.time);
+		cloned.lastTime = Instant.from(this.lastTime);
+		if(fields != null)
+		{
+			cloned.fields = fields.clone();
+			cloned.stringValues = stringValues.clone();
+			cloned.numberValues = numberValues.clone();
+		}
 		return (Object) cloned;
 	}
 	
 	/**
-	 * Compares two logs. Two logs are equal if their messages, log level, 
-	 * and times are equal (very unlikely). This log is less than the log 
-	 * passed if its time is less, and this log is greater if its time is greater.
+	 * Compares two logs. This log is less than the log passed if its time
+	 * is less, and greater if its time is greater. Logs with the same time
+	 * are ordered by their sequence number, then by level and message, so
+	 * two logs compare as 0 exactly when they are equal.
 	 * @param o another Log
-	 * @return 0 if message, log level, and times equal. -1 if time is less, and 
-	 * 1 if time is greater.
+	 * @return 0 if the logs are equal, less than 0 if this log comes first,
+	 * and greater than 0 if it comes after.
 	 */
 	@Override
 	public int compareTo(Log l)
 	{
-		if(equals(l))
+		int compared = this.time.compareTo(l.time);
+		if(compared != 0)
 		{
-			return 0;
+			return compared;
 		}
-		
-		return this.time.compareTo(l.time);
+		compared = Long.compare(this.sequence, l.sequence);
+		if(compared != 0)
+		{
+			return compared;
+		}
+		compared = this.level.compareTo(l.level);
+		if(compared != 0)
+		{
+			return compared;
+		}
+		return this.message.compareTo(l.message);
 	}
 	
 	/**
-	 * Compares two Logs on their message, log level, and time.
+	 * Compares two Logs on their time, sequence number, log level and
+	 * message, the same as compareTo. A log and its clone are equal.
 	 * @param o another Object
-	 * @return true if message, log level, and time are equal, false 
-	 * otherise.
+	 * @return true if time, sequence number, log level and message are equal,
+	 * false otherwise.
 	 */
 	@Override
 	public boolean equals(Object o)
@@ -135,8 +438,22 @@ public class Log implements Cloneable, Comparable<Log>
 		}
 		
 		Log other = (Log) o;
-		return other.message.equals(this.message)
+		return other.sequence == this.sequence
+				&& other.time.equals(this.time)
 				&& other.level.equals(this.level)
-				&& other.time.equals(this.time);
+				&& other.message.equals(this.message);
+	}
+	
+	/**
+	 * Hashes the same parts of this log that equals compares.
+	 * @return a hash code for this log
+	 */
+	@Override
+	public int hashCode()
+	{
+		int hash = Long.hashCode(sequence);
+		hash = 31 * hash + time.hashCode();
+		hash = 31 * hash + level.hashCode();
+		return 31 * hash + message.hashCode();
 	}
 }
@@ -0,0 +1,247 @@
+package collin.timescreator.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A growable array of bytes that formatted logs are written into. Text is
+ * encoded as UTF-8 directly into the array, so a buffer that is cleared
+ * and reused between batches does not allocate once it has grown large
+ * enough for the biggest batch.
+ * @author colli
+ *
+ */
+public class LogBuffer
+{
+	/**
+	 * Digits of a number, written from the right.
+	 */
+	private final byte[] digits;
+	
+	/**
+	 * The bytes written so far, followed by unused room.
+	 */
+	private byte[] bytes;
+	
+	/**
+	 * The amount of bytes written so far.
+	 */
+	private int length;
+	
+	/**
+	 * Constructor. Starts with room for the given amount of bytes.
+	 * @param capacity starting room in bytes
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public LogBuffer(int capacity) throws IllegalArgumentException
+	{
+		if(capacity <= 0)
+			throw new IllegalArgumentException(String.valueOf(capacity));
+		bytes = new byte[capacity];
+		digits = new byte[20];
+	}
+	
+	/**
+	 * Constructor. Starts with room for a few kilobytes.
+	 */
+	public LogBuffer()
+	{
+		this(8192);
+	}
+	
+	/**
+	 * Gets the amount of bytes written so far.
+	 * @return amount of bytes
+	 */
+	public int length()
+	{
+		return length;
+	}
+	
+	/**
+	 * Throws away everything written, keeping the room.
+	 */
+	public void clear()
+	{
+		length = 0;
+	}
+	
+	/**
+	 * Gets the array the bytes are written into. Only the first length()
+	 * bytes are in use, and the array changes whenever the buffer grows.
+	 * @return the backing array
+	 */
+	public byte[] array()
+	{
+		return bytes;
+	}
+	
+	/**
+	 * Appends a single byte.
+	 * @param b a byte
+	 * @return itself
+	 */
+	public LogBuffer append(byte b)
+	{
+		ensureRoom(1);
+		bytes[length++] = b;
+		return this;
+	}
+	
+	/**
+	 * Appends bytes that were encoded ahead of time.
+	 * @param b the bytes
+	 * @return itself
+	 */
+	public LogBuffer append(byte[] b)
+	{
+		return append(b, 0, b.length);
+	}
+	
+	/**
+	 * Appends part of an array of bytes that were encoded ahead of time.
+	 * @param b the bytes
+	 * @param offset index of the first byte to append
+	 * @param count amount of bytes to append
+	 * @return itself
+	 */
+	public LogBuffer append(byte[] b, int offset, int count)
+	{
+		ensureRoom(count);
+		System.arraycopy(b, offset, bytes, length, count);
+		length += count;
+		return this;
+	}
+	
+	/**
+	 * Appends a number in decimal.
+	 * @param n a number
+	 * @return itself
+	 */
+	public LogBuffer append(long n)
+	{
+		if(n == Long.MIN_VALUE)
+		{
+			return append(Long.toString(n));
+		}
+		if(n < 0)
+		{
+			append((byte) '-');
+			n = -n;
+		}
+		int start = digits.length;
+		do
+		{
+			digits[--start] = (byte) ('0' + n % 10);
+			n /= 10;
+		}
+		while(n != 0);
+		return append(digits, start, digits.length - start);
+	}
+	
+	/**
+	 * Appends text encoded as UTF-8.
+	 * @param s the text, or null to append "null"
+	 * @return itself
+	 */
+	public LogBuffer append(CharSequence s)
+	{
+		if(s == null)
+		{
+			s = "null";
+		}
+		return append(s, 0, s.length());
+	}
+	
+	/**
+	 * Appends part of some text encoded as UTF-8. A surrogate without its
+	 * other half is written as '?' rather than losing the log.
+	 * @param s the text
+	 * @param start index of the first char to append
+	 * @param end index after the last char to append
+	 * @return itself
+	 */
+	public LogBuffer append(CharSequence s, int start, int end)
+	{
+		// Every char takes at most three bytes, and a surrogate pair only four.
+		ensureRoom((end - start) * 3);
+		byte[] b = bytes;
+		int n = length;
+		for(int i = start; i < end; i++)
+		{
+			char c = s.charAt(i);
+			if(c < 0x80)
+			{
+				b[n++] = (byte) c;
+			}
+			else if(c < 0x800)
+			{
+				b[n++] = (byte) (0xC0 | c >> 6);
+				b[n++] = (byte) (0x80 | c & 0x3F);
+			}
+			else if(Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1)))
+			{
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				b[n++] = (byte) (0xF0 | cp >> 18);
+				b[n++] = (byte) (0x80 | cp >> 12 & 0x3F);
+				b[n++] = (byte) (0x80 | cp >> 6 & 0x3F);
+				b[n++] = (byte) (0x80 | cp & 0x3F);
+			}
+			else if(Character.isSurrogate(c))
+			{
+				b[n++] = '?';
+			}
+			else
+			{
+				b[n++] = (byte) (0xE0 | c >> 12);
+				b[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+				b[n++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		length = n;
+		return this;
+	}
+	
+	/**
+	 * Writes everything in this buffer to a channel.
+	 * @param channel where to write the bytes
+	 * @return the amount of bytes written
+	 * @throws IOException if the channel could not be written to
+	 */
+	public int writeTo(WritableByteChannel channel) throws IOException
+	{
+		ByteBuffer b = ByteBuffer.wrap(bytes, 0, length);
+		while(b.hasRemaining())
+		{
+			channel.write(b);
+		}
+		return length;
+	}
+	
+	/**
+	 * Writes everything in this buffer to a stream with a single call.
+	 * @param out where to write the bytes
+	 * @return the amount of bytes written
+	 * @throws IOException if the stream could not be written to
+	 */
+	public int writeTo(OutputStream out) throws IOException
+	{
+		out.write(bytes, 0, length);
+		return length;
+	}
+	
+	/**
+	 * Makes sure there is room for more bytes, growing the array if not.
+	 * @param more amount of bytes about to be written
+	 */
+	private void ensureRoom(int more)
+	{
+		if(length + more > bytes.length)
+		{
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+		}
+	}
+}
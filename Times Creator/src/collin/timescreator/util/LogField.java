@@ -0,0 +1,65 @@
+package collin.timescreator.util;
+
+/**
+ * A named, typed piece of data that a Log can carry along with its message,
+ * so logs can be searched and grouped without parsing their text.
+ * @author colli
+ *
+ */
+public enum LogField
+{
+	NET_ID("netID", Type.STRING),
+	ACTION_INDEX("actionIndex", Type.NUMBER),
+	LOCATOR("locator", Type.STRING),
+	ELAPSED_NANOS("elapsedNanos", Type.NUMBER),
+	BROWSER("browser", Type.STRING);
+	
+	/**
+	 * The kinds of values a field can hold.
+	 * @author colli
+	 *
+	 */
+	public enum Type
+	{
+		STRING, NUMBER;
+	}
+	
+	/**
+	 * The name of this field when written out.
+	 */
+	private final String key;
+	
+	/**
+	 * The kind of value this field holds.
+	 */
+	private final Type type;
+	
+	/**
+	 * Constructor.
+	 * @param key the name of this field when written out
+	 * @param type the kind of value this field holds
+	 */
+	private LogField(String key, Type type)
+	{
+		this.key = key;
+		this.type = type;
+	}
+	
+	/**
+	 * Gets the name of this field when written out.
+	 * @return a name
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+	
+	/**
+	 * Gets the kind of value this field holds.
+	 * @return a type
+	 */
+	public Type getType()
+	{
+		return type;
+	}
+}
@@ -0,0 +1,17 @@
+package collin.timescreator.util;
+
+/**
+ * Turns a log into the bytes a LogSink writes out. Formatters are only
+ * used by a single sink, so they may keep state between logs.
+ * @author colli
+ *
+ */
+public interface LogFormatter
+{
+	/**
+	 * Appends the UTF-8 text of a single log, including its trailing new line.
+	 * @param l the log to format
+	 * @param out where to append the text
+	 */
+	public abstract void format(Log l, LogBuffer out);
+}
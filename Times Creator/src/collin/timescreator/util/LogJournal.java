@@ -0,0 +1,583 @@
+package collin.timescreator.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A binary log backend that writes records into fixed size, memory-mapped
+ * segment files. Messages are stored as a template id and up to three number
+ * arguments, so writing a record is only a handful of stores into the mapped
+ * segment with no allocation. Any thread may write at the same time.
+ * <p>
+ * Each record's length is stored last, so a record is either completely
+ * there or not there at all. Since the segments are mapped files, every finished
+ * record survives the program crashing. Templates are kept in a text file
+ * next to the segments, and LogJournalDecoder turns everything back into text.
+ * <p>
+ * The journal is also a LogSink, so a LoggingThread can write regular logs
+ * into it. Those are stored as their full message text.
+ * @author colli
+ *
+ */
+public class LogJournal implements LogSink
+{
+	/**
+	 * Default size of a segment file, in bytes.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+	
+	/**
+	 * Marks the start of every segment file.
+	 */
+	static final int MAGIC = 0x54434A31;
+	
+	/**
+	 * Version of the segment format.
+	 */
+	static final int VERSION = 1;
+	
+	/**
+	 * Size of the segment header: magic, version and segment number.
+	 */
+	static final int SEGMENT_HEADER_SIZE = 16;
+	
+	/**
+	 * Size of a record before its arguments or text: length, kind,
+	 * level, argument count, padding, time, template id or text length and padding.
+	 */
+	static final int RECORD_HEADER_SIZE = 24;
+	
+	/**
+	 * Kind of record holding a template id and number arguments.
+	 */
+	static final byte TEMPLATE_RECORD = 0;
+	
+	/**
+	 * Kind of record holding the text of a message.
+	 */
+	static final byte TEXT_RECORD = 1;
+	
+	/**
+	 * Every record starts on a multiple of this many bytes.
+	 */
+	static final int ALIGNMENT = 8;
+	
+	/**
+	 * Start of every segment file name.
+	 */
+	static final String SEGMENT_PREFIX = "journal-";
+	
+	/**
+	 * Extension of every segment file.
+	 */
+	static final String SEGMENT_EXTENSION = ".seg";
+	
+	/**
+	 * Name of the file holding the templates.
+	 */
+	static final String TEMPLATES_FILE = "templates.txt";
+	
+	/**
+	 * Byte order of everything in a segment.
+	 */
+	static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+	
+	/**
+	 * Stores a record's length with release ordering, publishing the rest of the record.
+	 */
+	private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ORDER);
+	
+	/**
+	 * The segment each thread last reserved space in. Needed since the
+	 * current segment may change between reserving space and writing to it.
+	 */
+	private static final ThreadLocal<Segment> RESERVED = new ThreadLocal<Segment>();
+	
+	/**
+	 * The directory holding the segments and templates.
+	 */
+	private final Path directory;
+	
+	/**
+	 * Size of each segment file.
+	 */
+	private final int segmentSize;
+	
+	/**
+	 * Ids of every registered template.
+	 */
+	private final Map<String, Integer> templates;
+	
+	/**
+	 * Writes new templates to the templates file.
+	 */
+	private final BufferedWriter templateWriter;
+	
+	/**
+	 * Epoch time in nanoseconds of when this journal was opened.
+	 */
+	private final long baseEpochNanos;
+	
+	/**
+	 * System.nanoTime() of when this journal was opened.
+	 */
+	private final long baseNanoTime;
+	
+	/**
+	 * The segment currently being written to.
+	 */
+	private volatile Segment segment;
+	
+	/**
+	 * Whether this journal has been closed.
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor. Uses the default segment size.
+	 * @param directory the directory to keep segments in
+	 * @throws IOException if the directory or first segment could not be created
+	 */
+	public LogJournal(Path directory) throws IOException
+	{
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+	
+	/**
+	 * Constructor. Starts a new segment after any segments already in the directory.
+	 * @param directory the directory to keep segments in
+	 * @param segmentSize the size of each segment file, in bytes
+	 * @throws IOException if the directory or first segment could not be created
+	 * @throws IllegalArgumentException if the segment size is too small to be useful
+	 */
+	public LogJournal(Path directory, int segmentSize) throws IOException, IllegalArgumentException
+	{
+		if(segmentSize < 4096)
+		{
+			throw new IllegalArgumentException(String.valueOf(segmentSize));
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize - segmentSize % ALIGNMENT;
+		Files.createDirectories(directory);
+		
+		templates = new HashMap<String, Integer>();
+		Path templateFile = directory.resolve(TEMPLATES_FILE);
+		if(Files.exists(templateFile))
+		{
+			for(Map.Entry<Integer, String> entry : readTemplates(directory).entrySet())
+			{
+				templates.put(entry.getValue(), entry.getKey());
+			}
+		}
+		templateWriter = Files.newBufferedWriter(templateFile, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		
+		Instant now = Instant.now();
+		baseNanoTime = System.nanoTime();
+		baseEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+		
+		long lastNumber = -1;
+		for(Path p : segments(directory))
+		{
+			lastNumber = Math.max(lastNumber, segmentNumber(p));
+		}
+		segment = new Segment(lastNumber + 1);
+	}
+	
+	/**
+	 * Registers a message template, giving back the id to write it with.
+	 * Each {} in the template is replaced by the next argument when decoded.
+	 * Registering the same template again gives back the same id.
+	 * @param template a message template
+	 * @return the template's id
+	 * @throws IOException if the template could not be saved
+	 */
+	public synchronized int registerTemplate(String template) throws IOException
+	{
+		Integer id = templates.get(template);
+		if(id != null)
+		{
+			return id;
+		}
+		id = templates.size();
+		templateWriter.write(id + "\t" + template.replace("\\", "\\\\").replace("\n", "\\n"));
+		templateWriter.newLine();
+		templateWriter.flush();
+		templates.put(template, id);
+		return id;
+	}
+	
+	/**
+	 * Writes a record with no arguments.
+	 * @param level the log level
+	 * @param templateId a registered template id
+	 */
+	public void log(LogLevel level, int templateId)
+	{
+		int offset = reserve(RECORD_HEADER_SIZE);
+		if(offset < 0)
+		{
+			return;
+		}
+		MappedByteBuffer b = reservedBuffer();
+		putHeader(b, offset, TEMPLATE_RECORD, level, 0, now(), templateId);
+		commit(b, offset, RECORD_HEADER_SIZE);
+	}
+	
+	/**
+	 * Writes a record with one argument.
+	 * @param level the log level
+	 * @param templateId a registered template id
+	 * @param a the first argument
+	 */
+	public void log(LogLevel level, int templateId, long a)
+	{
+		int size = RECORD_HEADER_SIZE + Long.BYTES;
+		int offset = reserve(size);
+		if(offset < 0)
+		{
+			return;
+		}
+		MappedByteBuffer b = reservedBuffer();
+		putHeader(b, offset, TEMPLATE_RECORD, level, 1, now(), templateId);
+		b.putLong(offset + RECORD_HEADER_SIZE, a);
+		commit(b, offset, size);
+	}
+	
+	/**
+	 * Writes a record with two arguments.
+	 * @param level the log level
+	 * @param templateId a registered template id
+	 * @param a the first argument
+	 * @param b the second argument
+	 */
+	public void log(LogLevel level, int templateId, long a, long b)
+	{
+		int size = RECORD_HEADER_SIZE + 2 * Long.BYTES;
+		int offset = reserve(size);
+		if(offset < 0)
+		{
+			return;
+		}
+		MappedByteBuffer buf = reservedBuffer();
+		putHeader(buf, offset, TEMPLATE_RECORD, level, 2, now(), templateId);
+		buf.putLong(offset + RECORD_HEADER_SIZE, a);
+		buf.putLong(offset + RECORD_HEADER_SIZE + Long.BYTES, b);
+		commit(buf, offset, size);
+	}
+	
+	/**
+	 * Writes a record with three arguments.
+	 * @param level the log level
+	 * @param templateId a registered template id
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @param c the third argument
+	 */
+	public void log(LogLevel level, int templateId, long a, long b, long c)
+	{
+		int size = RECORD_HEADER_SIZE + 3 * Long.BYTES;
+		int offset = reserve(size);
+		if(offset < 0)
+		{
+			return;
+		}
+		MappedByteBuffer buf = reservedBuffer();
+		putHeader(buf, offset, TEMPLATE_RECORD, level, 3, now(), templateId);
+		buf.putLong(offset + RECORD_HEADER_SIZE, a);
+		buf.putLong(offset + RECORD_HEADER_SIZE + Long.BYTES, b);
+		buf.putLong(offset + RECORD_HEADER_SIZE + 2 * Long.BYTES, c);
+		commit(buf, offset, size);
+	}
+	
+	/**
+	 * Writes a regular log, storing its message text. Messages too long to
+	 * fit in a segment are cut short.
+	 * @param l a log
+	 */
+	public void log(Log l)
+	{
+		String message = String.valueOf(l.getMessage());
+		int maxChars = (segmentSize - SEGMENT_HEADER_SIZE - RECORD_HEADER_SIZE) / Character.BYTES;
+		int chars = Math.min(message.length(), maxChars);
+		int size = RECORD_HEADER_SIZE + chars * Character.BYTES;
+		int offset = reserve(size);
+		if(offset < 0)
+		{
+			return;
+		}
+		MappedByteBuffer b = reservedBuffer();
+		Instant time = l.getTime();
+		putHeader(b, offset, TEXT_RECORD, l.getLogLevel(), 0,
+				time.getEpochSecond() * 1_000_000_000L + time.getNano(), chars);
+		int position = offset + RECORD_HEADER_SIZE;
+		for(int i = 0; i < chars; i++, position += Character.BYTES)
+		{
+			b.putChar(position, message.charAt(i));
+		}
+		commit(b, offset, size);
+	}
+	
+	/**
+	 * Writes each log as a text record.
+	 * @param logs logs ordered from oldest to newest
+	 */
+	@Override
+	public void write(List<Log> logs)
+	{
+		for(Log l : logs)
+		{
+			log(l);
+		}
+	}
+	
+	/**
+	 * Forces the current segment to the disk.
+	 */
+	@Override
+	public void flush()
+	{
+		segment.buffer.force();
+	}
+	
+	/**
+	 * Forces the current segment to the disk and stops accepting records.
+	 * @throws IOException if the templates file could not be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if(closed)
+		{
+			return;
+		}
+		closed = true;
+		segment.buffer.force();
+		templateWriter.close();
+	}
+	
+	/**
+	 * Gets the directory holding the segments and templates.
+	 * @return a directory
+	 */
+	public Path getDirectory()
+	{
+		return directory;
+	}
+	
+	/**
+	 * Reserves space for a record in the current segment, moving on to a
+	 * new segment when the current one is full. The segment the space is in
+	 * is remembered for the calling thread, see reservedBuffer().
+	 * @param size the size of the record
+	 * @return the offset of the record, or -1 if the journal is closed
+	 */
+	private int reserve(int size)
+	{
+		int aligned = (size + ALIGNMENT - 1) & -ALIGNMENT;
+		while(!closed)
+		{
+			Segment s = segment;
+			int offset = s.position.getAndAdd(aligned);
+			if(offset + aligned <= segmentSize)
+			{
+				RESERVED.set(s);
+				return offset;
+			}
+			try
+			{
+				roll(s);
+			}
+			catch(IOException e)
+			{
+				closed = true;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Gets the buffer of the segment the calling thread last reserved space in.
+	 * @return a mapped buffer
+	 */
+	private MappedByteBuffer reservedBuffer()
+	{
+		return RESERVED.get().buffer;
+	}
+	
+	/**
+	 * Moves on to the next segment if the given one is still the current segment.
+	 * @param full the segment that ran out of room
+	 * @throws IOException if the next segment could not be created
+	 */
+	private synchronized void roll(Segment full) throws IOException
+	{
+		if(segment == full && !closed)
+		{
+			full.buffer.force();
+			segment = new Segment(full.number + 1);
+		}
+	}
+	
+	/**
+	 * Gets the current epoch time in nanoseconds without allocating.
+	 * @return nanoseconds since the epoch
+	 */
+	private long now()
+	{
+		return baseEpochNanos + (System.nanoTime() - baseNanoTime);
+	}
+	
+	/**
+	 * Writes everything in a record header except its length.
+	 */
+	private static void putHeader(MappedByteBuffer b, int offset, byte kind, LogLevel level,
+			int argCount, long epochNanos, int templateIdOrLength)
+	{
+		b.put(offset + 4, kind);
+		b.put(offset + 5, (byte) level.ordinal());
+		b.put(offset + 6, (byte) argCount);
+		b.putLong(offset + 8, epochNanos);
+		b.putInt(offset + 16, templateIdOrLength);
+	}
+	
+	/**
+	 * Publishes a record by storing its length after everything else.
+	 */
+	private static void commit(MappedByteBuffer b, int offset, int size)
+	{
+		INT.setRelease(b, offset, size);
+	}
+	
+	/**
+	 * Reads the templates file of a journal directory.
+	 * @param directory a journal directory
+	 * @return template text by id
+	 * @throws IOException if the file could not be read
+	 */
+	static Map<Integer, String> readTemplates(Path directory) throws IOException
+	{
+		Map<Integer, String> byId = new HashMap<Integer, String>();
+		Path file = directory.resolve(TEMPLATES_FILE);
+		if(!Files.exists(file))
+		{
+			return byId;
+		}
+		for(String line : Files.readAllLines(file, StandardCharsets.UTF_8))
+		{
+			int tab = line.indexOf('\t');
+			if(tab <= 0)
+			{
+				continue;
+			}
+			StringBuilder template = new StringBuilder();
+			for(int i = tab + 1; i < line.length(); i++)
+			{
+				char c = line.charAt(i);
+				if(c == '\\' && i + 1 < line.length())
+				{
+					c = line.charAt(++i);
+					template.append(c == 'n' ? '\n' : c);
+				}
+				else
+				{
+					template.append(c);
+				}
+			}
+			byId.put(Integer.parseInt(line.substring(0, tab)), template.toString());
+		}
+		return byId;
+	}
+	
+	/**
+	 * Lists the segment files of a journal directory, oldest first.
+	 * @param directory a journal directory
+	 * @return segment paths
+	 * @throws IOException if the directory could not be read
+	 */
+	static List<Path> segments(Path directory) throws IOException
+	{
+		List<Path> paths = new ArrayList<Path>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION))
+		{
+			for(Path p : stream)
+			{
+				paths.add(p);
+			}
+		}
+		paths.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+		return paths;
+	}
+	
+	/**
+	 * Gets the number of a segment from its file name.
+	 * @param segmentFile a segment path
+	 * @return the segment number
+	 */
+	static long segmentNumber(Path segmentFile)
+	{
+		String name = segmentFile.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+	}
+	
+	/**
+	 * A single mapped segment file.
+	 * @author colli
+	 *
+	 */
+	private final class Segment
+	{
+		/**
+		 * The number of this segment.
+		 */
+		private final long number;
+		
+		/**
+		 * The mapped contents of the segment file.
+		 */
+		private final MappedByteBuffer buffer;
+		
+		/**
+		 * The offset of the next record to reserve.
+		 */
+		private final AtomicInteger position;
+		
+		/**
+		 * Constructor. Creates and maps the segment file and writes its header.
+		 * @param number the number of this segment
+		 * @throws IOException if the file could not be created or mapped
+		 */
+		private Segment(long number) throws IOException
+		{
+			this.number = number;
+			Path file = directory.resolve(SEGMENT_PREFIX + number + SEGMENT_EXTENSION);
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.READ, StandardOpenOption.WRITE))
+			{
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			}
+			buffer.order(ORDER);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putLong(8, number);
+			position = new AtomicInteger(SEGMENT_HEADER_SIZE);
+		}
+	}
+}
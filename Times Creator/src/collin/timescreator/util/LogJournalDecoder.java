@@ -0,0 +1,153 @@
+package collin.timescreator.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Turns the segments of a LogJournal back into readable text.
+ * Run it with the journal directory as its only argument to print every
+ * record to stdout, oldest segment first.
+ * @author colli
+ *
+ */
+public class LogJournalDecoder
+{
+	/**
+	 * Template text by id.
+	 */
+	private final Map<Integer, String> templates;
+	
+	/**
+	 * Constructor. Reads the templates of the given journal directory.
+	 * @param directory a journal directory
+	 * @throws IOException if the templates could not be read
+	 */
+	public LogJournalDecoder(Path directory) throws IOException
+	{
+		templates = LogJournal.readTemplates(directory);
+	}
+	
+	/**
+	 * Prints every record of every segment in a journal directory.
+	 * @param args the journal directory
+	 * @throws IOException if the journal could not be read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length != 1)
+		{
+			System.err.println("Usage: LogJournalDecoder <journal directory>");
+			System.exit(1);
+		}
+		Path directory = Paths.get(args[0]);
+		LogJournalDecoder decoder = new LogJournalDecoder(directory);
+		for(Path segment : LogJournal.segments(directory))
+		{
+			decoder.decode(segment, System.out);
+		}
+		System.out.flush();
+	}
+	
+	/**
+	 * Prints every finished record of a single segment. Reading stops at the
+	 * first record that was never finished, which is where the writer stopped.
+	 * @param segment a segment file
+	 * @param out where to print the records
+	 * @return the amount of records printed
+	 * @throws IOException if the segment could not be read or is not a segment
+	 */
+	public int decode(Path segment, PrintStream out) throws IOException
+	{
+		ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(segment)).order(LogJournal.ORDER);
+		if(b.limit() < LogJournal.SEGMENT_HEADER_SIZE || b.getInt(0) != LogJournal.MAGIC)
+		{
+			throw new IOException(segment + " is not a journal segment");
+		}
+		if(b.getInt(4) != LogJournal.VERSION)
+		{
+			throw new IOException(segment + " has unknown version " + b.getInt(4));
+		}
+		
+		LogLevel[] levels = LogLevel.values();
+		StringBuilder line = new StringBuilder();
+		int records = 0;
+		int offset = LogJournal.SEGMENT_HEADER_SIZE;
+		while(offset + LogJournal.RECORD_HEADER_SIZE <= b.limit())
+		{
+			int length = b.getInt(offset);
+			if(length < LogJournal.RECORD_HEADER_SIZE || offset + length > b.limit())
+			{
+				break;
+			}
+			byte kind = b.get(offset + 4);
+			int level = b.get(offset + 5);
+			int argCount = b.get(offset + 6);
+			long epochNanos = b.getLong(offset + 8);
+			int idOrLength = b.getInt(offset + 16);
+			
+			line.setLength(0);
+			line.append(Instant.ofEpochSecond(0, epochNanos)).append(" [")
+				.append(level >= 0 && level < levels.length ? levels[level].toString() : "LEVEL " + level)
+				.append("] ");
+			int data = offset + LogJournal.RECORD_HEADER_SIZE;
+			if(kind == LogJournal.TEXT_RECORD)
+			{
+				for(int i = 0; i < idOrLength; i++)
+				{
+					line.append(b.getChar(data + i * Character.BYTES));
+				}
+			}
+			else
+			{
+				long[] args = new long[argCount];
+				for(int i = 0; i < argCount; i++)
+				{
+					args[i] = b.getLong(data + i * Long.BYTES);
+				}
+				appendTemplate(line, templates.get(idOrLength), idOrLength, args);
+			}
+			out.println(line);
+			records++;
+			offset += (length + LogJournal.ALIGNMENT - 1) & -LogJournal.ALIGNMENT;
+		}
+		return records;
+	}
+	
+	/**
+	 * Appends a template with each {} replaced by the next argument. Arguments
+	 * without a {} left for them are added to the end.
+	 * @param out where to append the text
+	 * @param template the template, or null if it is unknown
+	 * @param id the template id
+	 * @param args the record's arguments
+	 */
+	private static void appendTemplate(StringBuilder out, String template, int id, long[] args)
+	{
+		int arg = 0;
+		if(template == null)
+		{
+			out.append("<template ").append(id).append('>');
+		}
+		else
+		{
+			int start = 0;
+			int placeholder;
+			while((placeholder = template.indexOf("{}", start)) >= 0 && arg < args.length)
+			{
+				out.append(template, start, placeholder).append(args[arg++]);
+				start = placeholder + 2;
+			}
+			out.append(template, start, template.length());
+		}
+		for(; arg < args.length; arg++)
+		{
+			out.append(' ').append(args[arg]);
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package collin.timescreator.util;
+
+/**
+ * What a Logger does with a new log when it already holds as many logs
+ * as its capacity allows.
+ * @author colli
+ *
+ */
+public enum LogOverflowPolicy
+{
+	/**
+	 * The log is thrown away and counted as dropped.
+	 */
+	DROP,
+	
+	/**
+	 * The logging thread waits a short time for room, and the log is
+	 * dropped if none opens up.
+	 */
+	BLOCK,
+	
+	/**
+	 * The log is kept even though it goes over capacity.
+	 */
+	KEEP;
+}
@@ -0,0 +1,500 @@
+package collin.timescreator.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the logs between two times from the files a RollingFileLogSink
+ * wrote, along with optional level and field filters. Each file's sparse
+ * index is binary searched for where the range starts, so only the part
+ * of each file inside the range is read. Works on both the text and the
+ * JSON-lines formats.
+ * <p>
+ * Usage: LogQuery directory from to [-level LEVEL] [-field key=value]... [-ext .log|.jsonl]
+ * <p>
+ * Times may be ISO instants (2019-03-05T16:58:00Z), local date-times
+ * (2019-03-05T10:58) or local times of today (10:58).
+ * @author colli
+ *
+ */
+public class LogQuery
+{
+	/**
+	 * How far out of time order logs may be written. Logs are written in the
+	 * order they were made, which may differ slightly from their times, and
+	 * a Logger's summary of repeats has the time of the first repeat but is
+	 * written when the suppression window ends.
+	 */
+	private static final long SLACK_MILLIS = Logger.DEFAULT_SUPPRESSION_MILLIS + 1000;
+	
+	/**
+	 * The start of every text log.
+	 */
+	private static final String TEXT_HEADER = "LOG-- ";
+	
+	/**
+	 * The earliest time wanted, in epoch milliseconds.
+	 */
+	private final long fromMillis;
+	
+	/**
+	 * The latest time wanted, in epoch milliseconds.
+	 */
+	private final long toMillis;
+	
+	/**
+	 * The lowest level wanted.
+	 */
+	private final LogLevel minimumLevel;
+	
+	/**
+	 * The fields every log must have, as "key=value".
+	 */
+	private final List<String> fields;
+	
+	/**
+	 * Constructor.
+	 * @param from the earliest time wanted
+	 * @param to the latest time wanted
+	 * @param minimumLevel the lowest level wanted
+	 * @param fields the fields every log must have, as "key=value"
+	 * @throws NullPointerException if any argument is null
+	 */
+	public LogQuery(Instant from, Instant to, LogLevel minimumLevel, List<String> fields) throws NullPointerException
+	{
+		if(from == null || to == null || minimumLevel == null || fields == null)
+			throw new NullPointerException();
+		this.fromMillis = from.toEpochMilli();
+		this.toMillis = to.toEpochMilli();
+		this.minimumLevel = minimumLevel;
+		this.fields = new ArrayList<String>(fields);
+	}
+	
+	/**
+	 * Runs a query from the command line.
+	 * @param args see the class description
+	 * @throws IOException if the logs could not be read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length < 3)
+		{
+			usage();
+		}
+		Path directory = Paths.get(args[0]);
+		Instant from = null;
+		Instant to = null;
+		LogLevel level = LogLevel.INFO;
+		List<String> fields = new ArrayList<String>();
+		String extension = RollingFileLogSink.DEFAULT_EXTENSION;
+		try
+		{
+			from = parseTime(args[1]);
+			to = parseTime(args[2]);
+			for(int i = 3; i < args.length; i++)
+			{
+				if(i + 1 >= args.length)
+				{
+					usage();
+				}
+				switch(args[i])
+				{
+					case "-level":
+						level = LogLevel.valueOf(args[++i].toUpperCase());
+						break;
+					case "-field":
+						fields.add(args[++i]);
+						break;
+					case "-ext":
+						extension = args[++i];
+						break;
+					default:
+						usage();
+				}
+			}
+		}
+		catch(DateTimeException | IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			usage();
+		}
+		
+		LogQuery query = new LogQuery(from, to, level, fields);
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		for(Path file : logFiles(directory, extension))
+		{
+			query.search(file, out);
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Prints how to use the tool and exits.
+	 */
+	private static void usage()
+	{
+		System.err.println("Usage: LogQuery directory from to [-level LEVEL] [-field key=value]... [-ext .log|.jsonl]");
+		System.exit(1);
+	}
+	
+	/**
+	 * Parses a time given on the command line.
+	 * @param text an ISO instant, local date-time or local time of today
+	 * @return the time
+	 * @throws DateTimeException if the text is not a time
+	 */
+	static Instant parseTime(String text) throws DateTimeException
+	{
+		ZoneId zone = ZoneId.systemDefault();
+		if(text.endsWith("Z"))
+		{
+			return Instant.parse(text);
+		}
+		if(text.indexOf('T') >= 0)
+		{
+			return LocalDateTime.parse(text).atZone(zone).toInstant();
+		}
+		return LocalDateTime.of(LocalDate.now(zone), LocalTime.parse(text)).atZone(zone).toInstant();
+	}
+	
+	/**
+	 * Finds every log file with the given extension in a directory.
+	 * @param directory a log directory
+	 * @param extension the extension of the files wanted
+	 * @return the files, ordered by day and then by roll index
+	 * @throws IOException if the directory could not be read
+	 */
+	static List<Path> logFiles(Path directory, String extension) throws IOException
+	{
+		List<Path> files = new ArrayList<Path>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + extension))
+		{
+			for(Path file : stream)
+			{
+				files.add(file);
+			}
+		}
+		files.sort((a, b) -> compareRolls(a, b, extension));
+		return files;
+	}
+	
+	/**
+	 * Compares two files a RollingFileLogSink wrote, named base-day.index
+	 * with the extension. The index is compared as a number, so the tenth
+	 * file of a day comes after the second. Files named otherwise are
+	 * ordered by name.
+	 * @param a a log file
+	 * @param b another log file
+	 * @param extension the extension of both files
+	 * @return how a compares to b
+	 */
+	static int compareRolls(Path a, Path b, String extension)
+	{
+		String nameA = a.getFileName().toString();
+		String nameB = b.getFileName().toString();
+		String stemA = nameA.substring(0, nameA.length() - extension.length());
+		String stemB = nameB.substring(0, nameB.length() - extension.length());
+		long indexA = rollIndex(stemA);
+		long indexB = rollIndex(stemB);
+		if(indexA < 0 || indexB < 0)
+		{
+			return nameA.compareTo(nameB);
+		}
+		// The part before the index is the base and an ISO day, which sort as text.
+		int compared = stemA.substring(0, stemA.lastIndexOf('.')).compareTo(stemB.substring(0, stemB.lastIndexOf('.')));
+		return compared != 0 ? compared : Long.compare(indexA, indexB);
+	}
+	
+	/**
+	 * Reads the roll index at the end of a log file's name.
+	 * @param stem the name without its extension
+	 * @return the index, or -1 if the name does not end in one
+	 */
+	private static long rollIndex(String stem)
+	{
+		int dot = stem.lastIndexOf('.');
+		if(dot < 0 || dot == stem.length() - 1 || stem.length() - dot > 10)
+		{
+			return -1;
+		}
+		long index = 0;
+		for(int i = dot + 1; i < stem.length(); i++)
+		{
+			char c = stem.charAt(i);
+			if(c < '0' || c > '9')
+			{
+				return -1;
+			}
+			index = index * 10 + c - '0';
+		}
+		return index;
+	}
+	
+	/**
+	 * Prints every log in a file that matches this query.
+	 * @param file a log file
+	 * @param out where to print the logs
+	 * @return the amount of logs printed
+	 * @throws IOException if the file could not be read
+	 */
+	public int search(Path file, Writer out) throws IOException
+	{
+		long start = startOffset(RollingFileLogSink.indexFor(file));
+		if(start < 0)
+		{
+			return 0;
+		}
+		boolean json = !file.getFileName().toString().endsWith(RollingFileLogSink.DEFAULT_EXTENSION);
+		try(FileChannel channel = FileChannel.open(file))
+		{
+			channel.position(start);
+			BufferedReader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), 1 << 16));
+			return json ? searchJson(in, out) : searchText(in, out);
+		}
+	}
+	
+	/**
+	 * Binary searches an index for where this query's range starts.
+	 * @param index the index of a log file
+	 * @return the offset to start reading at, 0 if there is no usable index,
+	 * or -1 if the whole file is after the range
+	 * @throws IOException if the index could not be read
+	 */
+	long startOffset(Path index) throws IOException
+	{
+		if(!Files.exists(index))
+		{
+			return 0;
+		}
+		ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(index));
+		int count = entries.limit() / RollingFileLogSink.INDEX_ENTRY_SIZE;
+		if(count == 0)
+		{
+			return 0;
+		}
+		if(entries.getLong(0) > toMillis + SLACK_MILLIS)
+		{
+			return -1;
+		}
+		
+		// Finds the last entry early enough that no log in the range can come before it.
+		long target = fromMillis - SLACK_MILLIS;
+		int low = 0;
+		int high = count - 1;
+		int found = -1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			if(entries.getLong(middle * RollingFileLogSink.INDEX_ENTRY_SIZE) <= target)
+			{
+				found = middle;
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle - 1;
+			}
+		}
+		return found < 0 ? 0 : entries.getLong(found * RollingFileLogSink.INDEX_ENTRY_SIZE + Long.BYTES);
+	}
+	
+	/**
+	 * Prints the matching logs of a text log file.
+	 * @param in the file, positioned at the start of a log
+	 * @param out where to print the logs
+	 * @return the amount of logs printed
+	 * @throws IOException if the file could not be read or printed
+	 */
+	private int searchText(BufferedReader in, Writer out) throws IOException
+	{
+		int printed = 0;
+		boolean printing = false;
+		String line;
+		while((line = in.readLine()) != null)
+		{
+			if(!line.startsWith(TEXT_HEADER))
+			{
+				if(printing)
+				{
+					out.write(line);
+					out.write('\n');
+				}
+				continue;
+			}
+			
+			int levelStart = line.indexOf(" [", TEXT_HEADER.length());
+			int levelEnd = line.indexOf(']', levelStart);
+			if(levelStart < 0 || levelEnd < 0)
+			{
+				printing = false;
+				continue;
+			}
+			long time = parseMillis(line.substring(TEXT_HEADER.length(), levelStart).trim());
+			if(time > toMillis + SLACK_MILLIS)
+			{
+				break;
+			}
+			String header = line.substring(levelEnd + 1, line.length() - 1) + ' ';
+			printing = time >= fromMillis && time <= toMillis
+					&& levelWanted(line.substring(levelStart + 2, levelEnd))
+					&& textFieldsWanted(header);
+			if(printing)
+			{
+				out.write(line);
+				out.write('\n');
+				printed++;
+			}
+		}
+		return printed;
+	}
+	
+	/**
+	 * Prints the matching logs of a JSON-lines log file.
+	 * @param in the file, positioned at the start of a log
+	 * @param out where to print the logs
+	 * @return the amount of logs printed
+	 * @throws IOException if the file could not be read or printed
+	 */
+	private int searchJson(BufferedReader in, Writer out) throws IOException
+	{
+		int printed = 0;
+		String line;
+		while((line = in.readLine()) != null)
+		{
+			String timeText = jsonString(line, "time");
+			if(timeText == null)
+			{
+				continue;
+			}
+			long time = parseMillis(timeText);
+			if(time > toMillis + SLACK_MILLIS)
+			{
+				break;
+			}
+			if(time >= fromMillis && time <= toMillis
+					&& levelWanted(jsonString(line, "level"))
+					&& jsonFieldsWanted(line))
+			{
+				out.write(line);
+				out.write('\n');
+				printed++;
+			}
+		}
+		return printed;
+	}
+	
+	/**
+	 * Checks if a level is at or above the minimum level.
+	 * @param name the name of a level
+	 * @return true if logs of the level are wanted
+	 */
+	private boolean levelWanted(String name)
+	{
+		try
+		{
+			return name != null && LogLevel.valueOf(name).ordinal() >= minimumLevel.ordinal();
+		}
+		catch(IllegalArgumentException e)
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Checks if the fields of a text header hold every wanted field.
+	 * @param fieldText the fields of a header as " key=value key=value "
+	 * @return true if every wanted field is there
+	 */
+	private boolean textFieldsWanted(String fieldText)
+	{
+		for(String field : fields)
+		{
+			if(!fieldText.contains(" " + field + " "))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks if a JSON log holds every wanted field, as either a string or a number.
+	 * @param line a JSON log
+	 * @return true if every wanted field is there
+	 */
+	private boolean jsonFieldsWanted(String line)
+	{
+		for(String field : fields)
+		{
+			int equals = field.indexOf('=');
+			if(equals < 0)
+			{
+				return false;
+			}
+			String key = "\"" + field.substring(0, equals) + "\":";
+			String value = field.substring(equals + 1);
+			if(!line.contains(key + "\"" + value + "\"")
+					&& !line.contains(key + value + ",")
+					&& !line.contains(key + value + "}"))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Gets the value of a string member of a JSON log.
+	 * @param line a JSON log
+	 * @param key the name of the member
+	 * @return its value, still escaped, or null if it is missing
+	 */
+	private static String jsonString(String line, String key)
+	{
+		String start = "\"" + key + "\":\"";
+		int valueStart = line.indexOf(start);
+		if(valueStart < 0)
+		{
+			return null;
+		}
+		valueStart += start.length();
+		int valueEnd = line.indexOf('"', valueStart);
+		return valueEnd < 0 ? null : line.substring(valueStart, valueEnd);
+	}
+	
+	/**
+	 * Parses the time of a log.
+	 * @param text an ISO instant
+	 * @return epoch milliseconds, or Long.MIN_VALUE if the text is not a time
+	 */
+	private static long parseMillis(String text)
+	{
+		try
+		{
+			return Instant.parse(text).toEpochMilli();
+		}
+		catch(DateTimeException e)
+		{
+			return Long.MIN_VALUE;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package collin.timescreator.util;
+
+import java.util.List;
+
+/**
+ * A LogSink that keeps only the most recent logs in a fixed size ring, so
+ * they can be shown while the program runs. The logging thread is the only
+ * writer; any number of readers may copy logs out at their own pace without
+ * slowing it down. A reader that falls more than a full ring behind simply
+ * skips the logs it missed.
+ * @author colli
+ *
+ */
+public class LogRing implements LogSink
+{
+	/**
+	 * The logs, with log number n in slot n & mask.
+	 */
+	private final Log[] entries;
+	
+	/**
+	 * The capacity minus one, for turning log numbers into slots.
+	 */
+	private final int mask;
+	
+	/**
+	 * The amount of logs written so far. Written after the slot it
+	 * covers, so a reader that sees a count also sees its logs.
+	 */
+	private volatile long written;
+	
+	/**
+	 * Constructor.
+	 * @param capacity the amount of logs kept, rounded up to a power of two
+	 * @throws IllegalArgumentException if the capacity is not positive or too large
+	 */
+	public LogRing(int capacity) throws IllegalArgumentException
+	{
+		if(capacity <= 0 || capacity > 1 << 30)
+			throw new IllegalArgumentException(String.valueOf(capacity));
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+		{
+			size <<= 1;
+		}
+		entries = new Log[size];
+		mask = size - 1;
+	}
+	
+	/**
+	 * Gets the amount of logs kept.
+	 * @return the capacity
+	 */
+	public int getCapacity()
+	{
+		return entries.length;
+	}
+	
+	/**
+	 * Gets the amount of logs written since this ring was made. This is
+	 * the position a reader should start at to only see newer logs.
+	 * @return amount of logs written
+	 */
+	public long getWritten()
+	{
+		return written;
+	}
+	
+	/**
+	 * Gets the oldest position that is still in the ring.
+	 * @return a position to start reading from
+	 */
+	public long getOldest()
+	{
+		return Math.max(0, written - entries.length);
+	}
+	
+	/**
+	 * Copies the logs from a position onwards into a list. Logs that have
+	 * already been overwritten are skipped.
+	 * @param from the position of the first log wanted
+	 * @param destination list to add the logs to
+	 * @param max the most logs to copy
+	 * @return the position after the last log copied, to pass in next time
+	 */
+	public long read(long from, List<Log> destination, int max)
+	{
+		long end = written;
+		long start = Math.max(from, end - entries.length);
+		end = Math.min(end, start + max);
+		int copied = destination.size();
+		for(long i = start; i < end; i++)
+		{
+			destination.add(entries[(int) i & mask]);
+		}
+		
+		// The writer may have lapped us while copying. Drop anything it overwrote,
+		// including the slot it may be writing right now.
+		long overwritten = written - entries.length - start + 1;
+		if(overwritten > 0)
+		{
+			int drop = (int) Math.min(overwritten, end - start);
+			destination.subList(copied, copied + drop).clear();
+		}
+		return end;
+	}
+	
+	/**
+	 * Adds logs to the ring, overwriting the oldest ones.
+	 * @param logs logs ordered from oldest to newest
+	 */
+	@Override
+	public void write(List<Log> logs)
+	{
+		long next = written;
+		for(Log l : logs)
+		{
+			entries[(int) next & mask] = l;
+			written = ++next;
+		}
+	}
+	
+	/**
+	 * Does nothing; logs are visible as soon as they are written.
+	 */
+	@Override
+	public void flush()
+	{
+	}
+	
+	/**
+	 * Does nothing; the ring keeps its logs after the logging thread stops.
+	 */
+	@Override
+	public void close()
+	{
+	}
+}
@@ -0,0 +1,23 @@
+package collin.timescreator.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination that a LoggingThread writes its logs to. Sinks are only ever
+ * used by the logging thread, so they do not need to be thread safe and
+ * may take as long as they need without slowing down anyone who logs.
+ * @author colli
+ *
+ */
+public interface LogSink extends Flushable, Closeable
+{
+	/**
+	 * Writes a batch of logs. The sink may buffer them until it is flushed.
+	 * @param logs logs ordered from oldest to newest
+	 * @throws IOException if the logs could not be written
+	 */
+	public abstract void write(List<Log> logs) throws IOException;
+}
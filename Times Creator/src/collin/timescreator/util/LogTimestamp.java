@@ -0,0 +1,141 @@
+package collin.timescreator.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Writes log times as UTC ISO-8601 text with millisecond precision, such as
+ * 2019-03-05T14:07:31.042Z. The text of the last time written is kept, so
+ * logs within the same millisecond are copied straight from it and logs
+ * within the same second only have their milliseconds changed.
+ * Not thread safe; each formatter keeps its own.
+ * @author colli
+ *
+ */
+final class LogTimestamp
+{
+	/**
+	 * The amount of bytes in a written time.
+	 */
+	static final int LENGTH = 24;
+	
+	/**
+	 * Index of the first millisecond digit.
+	 */
+	private static final int MILLIS_INDEX = 20;
+	
+	/**
+	 * Seconds in a day.
+	 */
+	private static final long SECONDS_PER_DAY = 86400;
+	
+	/**
+	 * The text of the last time written.
+	 */
+	private final byte[] text;
+	
+	/**
+	 * The epoch second of the last time written.
+	 */
+	private long cachedSecond;
+	
+	/**
+	 * The millisecond within its second of the last time written.
+	 */
+	private int cachedMillis;
+	
+	/**
+	 * Constructor.
+	 */
+	LogTimestamp()
+	{
+		text = "0000-00-00T00:00:00.000Z".getBytes(StandardCharsets.US_ASCII);
+		cachedSecond = Long.MIN_VALUE;
+		cachedMillis = -1;
+	}
+	
+	/**
+	 * Appends a time. Times outside years 0 to 9999 fall back to Instant.toString().
+	 * @param time the time to write
+	 * @param out where to write the time
+	 */
+	void append(Instant time, LogBuffer out)
+	{
+		long second = time.getEpochSecond();
+		int millis = time.getNano() / 1000000;
+		if(second != cachedSecond)
+		{
+			if(!setSecond(second))
+			{
+				out.append(time.toString());
+				return;
+			}
+			cachedSecond = second;
+			cachedMillis = -1;
+		}
+		if(millis != cachedMillis)
+		{
+			put3(MILLIS_INDEX, millis);
+			cachedMillis = millis;
+		}
+		out.append(text);
+	}
+	
+	/**
+	 * Rewrites the date and time of day of the text.
+	 * @param second an epoch second
+	 * @return false if the year cannot be written in four digits
+	 */
+	private boolean setSecond(long second)
+	{
+		long days = Math.floorDiv(second, SECONDS_PER_DAY);
+		int secondOfDay = (int) Math.floorMod(second, SECONDS_PER_DAY);
+		
+		// Converts days since 1970-01-01 to a civil date, treating March as the
+		// first month so the leap day falls at the end of the year.
+		long z = days + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+		int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		if(year < 0 || year > 9999)
+		{
+			return false;
+		}
+		
+		put2(0, (int) year / 100);
+		put2(2, (int) year % 100);
+		put2(5, month);
+		put2(8, day);
+		put2(11, secondOfDay / 3600);
+		put2(14, secondOfDay / 60 % 60);
+		put2(17, secondOfDay % 60);
+		return true;
+	}
+	
+	/**
+	 * Writes a two digit number into the text.
+	 * @param index where to write the digits
+	 * @param n a number from 0 to 99
+	 */
+	private void put2(int index, int n)
+	{
+		text[index] = (byte) ('0' + n / 10);
+		text[index + 1] = (byte) ('0' + n % 10);
+	}
+	
+	/**
+	 * Writes a three digit number into the text.
+	 * @param index where to write the digits
+	 * @param n a number from 0 to 999
+	 */
+	private void put3(int index, int n)
+	{
+		text[index] = (byte) ('0' + n / 100);
+		put2(index + 1, n % 100);
+	}
+}
@@ -1,70 +1,854 @@
 package collin.timescreator.util;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.LinkedList;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * A collection of logs that allows for extracting out
- * oldest log given (based on that log's time).
+ * oldest log given (based on that log's sequence number).
+ * Any number of threads may log at the same time without locking,
+ * but only one thread (usually a LoggingThread) may retrieve logs.
+ * The amount of logs held is bounded; what happens to a log that does
+ * not fit depends on the overflow policy of its level.
+ * Logs repeating the message, level and source of a log from shortly
+ * before are suppressed, and a single log counting the repeats is added
+ * once the suppression window is over. Recent logs are remembered in a
+ * fixed table hashed by message, level and source, so remembering one
+ * costs no allocation and the table never grows; a log that shares a slot
+ * with another message may go unsuppressed.
  * @author colli
  *
  */
 public class Logger
 {
-	private List<Log> logs;
+	/**
+	 * Default amount of logs held before the overflow policies apply.
+	 */
+	public static final int DEFAULT_CAPACITY = 65536;
+	
+	/**
+	 * Default longest time a BLOCK log waits for room, in milliseconds.
+	 */
+	public static final long DEFAULT_BLOCK_MILLIS = 50;
+	
+	/**
+	 * How long a blocked thread parks between checks for room, in nanoseconds.
+	 */
+	private static final long BLOCK_SLICE_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+	
+	/**
+	 * Default length of the suppression window, in milliseconds.
+	 */
+	public static final long DEFAULT_SUPPRESSION_MILLIS = 5000;
+	
+	/**
+	 * The amount of slots remembering recent logs for suppression. A power of two.
+	 */
+	private static final int RECENT_SLOTS = 1024;
+	
+	/**
+	 * The oldest node in the queue. Its log has already been retrieved,
+	 * so the next log to give out is in its next node. Only touched by the
+	 * retrieving thread.
+	 */
+	private Node head;
+	
+	/**
+	 * The newest node in the queue. Logging threads swap themselves in here.
+	 */
+	private final AtomicReference<Node> tail;
+	
+	/**
+	 * The amount of logs that have been added but not yet retrieved.
+	 */
+	private final AtomicInteger count;
+	
+	/**
+	 * The thread currently parked waiting for logs, or null if none.
+	 */
+	private volatile Thread waiter;
+	
+	/**
+	 * The lowest level that is kept. Anything below it is thrown away
+	 * before a message or log is ever built for it.
+	 */
+	private volatile LogLevel minimumLevel;
+	
+	/**
+	 * The amount of logs held before the overflow policies apply.
+	 */
+	private volatile int capacity;
+	
+	/**
+	 * The longest time a BLOCK log waits for room, in nanoseconds.
+	 */
+	private volatile long blockNanos;
+	
+	/**
+	 * The overflow policy of each log level, by ordinal.
+	 */
+	private final AtomicReferenceArray<LogOverflowPolicy> policies;
+	
+	/**
+	 * The amount of logs dropped for each log level, by ordinal.
+	 */
+	private final AtomicLongArray dropped;
+	
+	/**
+	 * The length of the suppression window, in nanoseconds. Zero turns suppression off.
+	 */
+	private volatile long suppressionNanos;
+	
+	/**
+	 * Recent logs by the hash of their message, level and source. A slot
+	 * holds the first log of its message until the message repeats, and
+	 * then the Repeat run counting the repeats.
+	 */
+	private final AtomicReferenceArray<Object> recent;
+	
+	/**
+	 * The System.nanoTime() of the next time finished repeat runs are looked for.
+	 * Only touched by the retrieving thread.
+	 */
+	private long nextSweepNanos;
 	
 	public Logger()
 	{
-		logs = new LinkedList<Log>();
+		head = new Node(null);
+		tail = new AtomicReference<Node>(head);
+		count = new AtomicInteger();
+		minimumLevel = LogLevel.INFO;
+		capacity = DEFAULT_CAPACITY;
+		blockNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BLOCK_MILLIS);
+		policies = new AtomicReferenceArray<LogOverflowPolicy>(LogLevel.values().length);
+		dropped = new AtomicLongArray(LogLevel.values().length);
+		setOverflowPolicy(LogLevel.INFO, LogOverflowPolicy.DROP);
+		setOverflowPolicy(LogLevel.WARNING, LogOverflowPolicy.BLOCK);
+		setOverflowPolicy(LogLevel.DANGER, LogOverflowPolicy.KEEP);
+		setOverflowPolicy(LogLevel.FATAL, LogOverflowPolicy.KEEP);
+		suppressionNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SUPPRESSION_MILLIS);
+		recent = new AtomicReferenceArray<Object>(RECENT_SLOTS);
+		nextSweepNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Sets how long repeats of a log are suppressed after the log itself
+	 * is added. Zero turns suppression off.
+	 * @param window length of the window
+	 * @param unit the unit of the window
+	 * @throws IllegalArgumentException if the window is negative
+	 */
+	public void setSuppressionWindow(long window, TimeUnit unit) throws IllegalArgumentException
+	{
+		if(window < 0)
+			throw new IllegalArgumentException(String.valueOf(window));
+		suppressionNanos = unit.toNanos(window);
+	}
+	
+	/**
+	 * Gets how long repeats of a log are suppressed.
+	 * @param unit the unit to return the window in
+	 * @return length of the window
+	 */
+	public long getSuppressionWindow(TimeUnit unit)
+	{
+		return unit.convert(suppressionNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Sets the amount of logs held before the overflow policies apply.
+	 * Logs already held over a lowered capacity are kept.
+	 * @param capacity amount of logs
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public void setCapacity(int capacity) throws IllegalArgumentException
+	{
+		if(capacity <= 0)
+			throw new IllegalArgumentException(String.valueOf(capacity));
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * Gets the amount of logs held before the overflow policies apply.
+	 * @return amount of logs
+	 */
+	public int getCapacity()
+	{
+		return capacity;
+	}
+	
+	/**
+	 * Sets the longest time a log with the BLOCK policy waits for room.
+	 * @param timeout the longest time to wait
+	 * @param unit the unit of the timeout
+	 * @throws IllegalArgumentException if the timeout is negative
+	 */
+	public void setBlockTimeout(long timeout, TimeUnit unit) throws IllegalArgumentException
+	{
+		if(timeout < 0)
+			throw new IllegalArgumentException(String.valueOf(timeout));
+		blockNanos = unit.toNanos(timeout);
+	}
+	
+	/**
+	 * Sets what happens to logs of a level that do not fit.
+	 * @param level a log level
+	 * @param policy the overflow policy
+	 * @throws NullPointerException if either argument is null
+	 */
+	public void setOverflowPolicy(LogLevel level, LogOverflowPolicy policy) throws NullPointerException
+	{
+		if(level == null || policy == null)
+			throw new NullPointerException();
+		policies.set(level.ordinal(), policy);
+	}
+	
+	/**
+	 * Gets what happens to logs of a level that do not fit.
+	 * @param level a log level
+	 * @return the overflow policy
+	 */
+	public LogOverflowPolicy getOverflowPolicy(LogLevel level)
+	{
+		return policies.get(level.ordinal());
+	}
+	
+	/**
+	 * Gets the amount of logs of a level that were dropped for not fitting.
+	 * Logs below the minimum level are not counted.
+	 * @param level a log level
+	 * @return amount of dropped logs since this logger was created
+	 */
+	public long getDroppedCount(LogLevel level)
+	{
+		return dropped.get(level.ordinal());
+	}
+	
+	/**
+	 * Gets the amount of logs of every level that were dropped for not fitting.
+	 * @return amount of dropped logs since this logger was created
+	 */
+	public long getDroppedCount()
+	{
+		long total = 0;
+		for(int i = 0; i < dropped.length(); i++)
+		{
+			total += dropped.get(i);
+		}
+		return total;
+	}
+	
+	/**
+	 * Sets the lowest level that is kept.
+	 * @param level a log level
+	 * @throws NullPointerException if the level is null
+	 */
+	public void setMinimumLevel(LogLevel level) throws NullPointerException
+	{
+		if(level == null)
+			throw new NullPointerException();
+		minimumLevel = level;
+	}
+	
+	/**
+	 * Gets the lowest level that is kept.
+	 * @return a log level
+	 */
+	public LogLevel getMinimumLevel()
+	{
+		return minimumLevel;
+	}
+	
+	/**
+	 * Checks if logs of the given level are kept. Callers that need to do
+	 * real work to build a message can check this first.
+	 * @param level a log level
+	 * @return true if logs of the level are kept, false if they are thrown away
+	 */
+	public boolean isLoggable(LogLevel level)
+	{
+		return level.ordinal() >= minimumLevel.ordinal();
 	}
 	
 	public void log(Log l)
 	{
-		logs.add(l);
-		logs.sort(null);
+		if(!isLoggable(l.getLogLevel()) || suppress(l))
+		{
+			return;
+		}
+		enqueue(l);
+	}
+	
+	/**
+	 * Adds a log to the queue if it fits, waking the retrieving thread.
+	 * @param l the log to add
+	 */
+	private void enqueue(Log l)
+	{
+		if(!admit(l.getLogLevel()))
+		{
+			return;
+		}
+		Node node = new Node(l);
+		Node previous = tail.getAndSet(node);
+		previous.next = node;
+		count.incrementAndGet();
+		
+		Thread w = waiter;
+		if(w != null)
+		{
+			LockSupport.unpark(w);
+		}
 	}
 	
 	public void log(String message, LogLevel level)
 	{
-		log(new Log(message, level));
+		if(isLoggable(level))
+		{
+			log(new Log(message, level));
+		}
+	}
+	
+	/**
+	 * Logs a message that is only built if its level is kept.
+	 * @param message supplies the message
+	 * @param level the log level
+	 */
+	public void log(Supplier<String> message, LogLevel level)
+	{
+		if(isLoggable(level))
+		{
+			log(new Log(message.get(), level));
+		}
+	}
+	
+	/**
+	 * Logs a template with its {} replaced by the argument. The message
+	 * is only built if its level is kept.
+	 * @param level the log level
+	 * @param template the message template
+	 * @param arg the argument
+	 */
+	public void log(LogLevel level, String template, Object arg)
+	{
+		if(isLoggable(level))
+		{
+			log(new Log(format(template, arg), level));
+		}
+	}
+	
+	/**
+	 * Logs a template with its {} replaced by the arguments in order. The
+	 * message is only built if its level is kept.
+	 * @param level the log level
+	 * @param template the message template
+	 * @param arg1 the first argument
+	 * @param arg2 the second argument
+	 */
+	public void log(LogLevel level, String template, Object arg1, Object arg2)
+	{
+		if(isLoggable(level))
+		{
+			log(new Log(format(template, arg1, arg2), level));
+		}
+	}
+	
+	/**
+	 * Logs a template with its {} replaced by the arguments in order. The
+	 * message is only built if its level is kept.
+	 * @param level the log level
+	 * @param template the message template
+	 * @param args the arguments
+	 */
+	public void log(LogLevel level, String template, Object... args)
+	{
+		if(isLoggable(level))
+		{
+			log(new Log(format(template, args), level));
+		}
+	}
+	
+	/**
+	 * Replaces each {} in a template with the next argument. Placeholders
+	 * without an argument are left as they are.
+	 * @param template the message template
+	 * @param args the arguments
+	 * @return the message
+	 */
+	public static String format(String template, Object... args)
+	{
+		StringBuilder message = new StringBuilder(template.length() + 16 * args.length);
+		int start = 0;
+		int arg = 0;
+		int placeholder;
+		while(arg < args.length && (placeholder = template.indexOf("{}", start)) >= 0)
+		{
+			message.append(template, start, placeholder).append(args[arg++]);
+			start = placeholder + 2;
+		}
+		return message.append(template, start, template.length()).toString();
 	}
 	
 	public List<Log> getAllLogs()
 	{
-		if(logs.isEmpty())
+		List<Log> allLogs = new ArrayList<Log>(Math.max(count.get(), 1));
+		if(drainTo(allLogs) == 0)
 		{
 			throw new EmptyLogException();
 		}
-		List<Log> allLogs = logs;
-		logs = new LinkedList<Log>();
 		return allLogs;
 	}
 	
+	/**
+	 * Checks if a log repeats one added within the suppression window,
+	 * counting it as a repeat if so. A log that starts a new run is let
+	 * through so the first occurrence is never delayed, and is only
+	 * remembered in its slot; a run is made when it first repeats.
+	 * @param l the new log
+	 * @return true if the log was suppressed, false if it should be added
+	 */
+	private boolean suppress(Log l)
+	{
+		long window = suppressionNanos;
+		if(window == 0)
+		{
+			return false;
+		}
+		long now = System.nanoTime();
+		int slot = slotOf(l);
+		while(true)
+		{
+			Object held = recent.get(slot);
+			if(held instanceof Repeat)
+			{
+				Repeat run = (Repeat) held;
+				boolean over = now - run.startNanos >= window;
+				if(!over && isRepeat(run.first, l))
+				{
+					if(run.add(l.getTime()))
+					{
+						return true;
+					}
+					// The run was closed by the retrieving thread; look again.
+				}
+				else if(!over)
+				{
+					// Another message's run is still counting; leave it be.
+					return false;
+				}
+				else if(recent.compareAndSet(slot, run, l))
+				{
+					// The old run ended before the retrieving thread got to it.
+					finish(run, null);
+					return false;
+				}
+			}
+			else if(held instanceof Log && isRepeat((Log) held, l))
+			{
+				Log first = (Log) held;
+				long age = nanosBetween(first.getTime(), l.getTime());
+				if(Math.abs(age) >= window)
+				{
+					if(recent.compareAndSet(slot, held, l))
+					{
+						return false;
+					}
+				}
+				else
+				{
+					Repeat run = new Repeat(first, now - Math.max(age, 0));
+					run.add(l.getTime());
+					if(recent.compareAndSet(slot, held, run))
+					{
+						return true;
+					}
+				}
+			}
+			else if(recent.compareAndSet(slot, held, l))
+			{
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Finds the slot remembering logs with the message, level and source of a log.
+	 * @param l a log
+	 * @return the slot index
+	 */
+	private static int slotOf(Log l)
+	{
+		int hash = (Objects.hashCode(l.getMessage()) * 31 + l.getLogLevel().ordinal()) * 31 + Objects.hashCode(l.getSource());
+		hash ^= hash >>> 16;
+		return hash & (RECENT_SLOTS - 1);
+	}
+	
+	/**
+	 * Checks if two logs are repeats of each other: the same message, level and source.
+	 * @param a a log
+	 * @param b another log
+	 * @return true if they repeat each other
+	 */
+	private static boolean isRepeat(Log a, Log b)
+	{
+		return a.getLogLevel() == b.getLogLevel()
+				&& Objects.equals(a.getMessage(), b.getMessage())
+				&& Objects.equals(a.getSource(), b.getSource());
+	}
+	
+	/**
+	 * Gets the nanoseconds from one time to another without allocating.
+	 * @param from the earlier time
+	 * @param to the later time
+	 * @return nanoseconds, negative if to is before from
+	 */
+	private static long nanosBetween(Instant from, Instant to)
+	{
+		return (to.getEpochSecond() - from.getEpochSecond()) * 1_000_000_000L + (to.getNano() - from.getNano());
+	}
+	
+	/**
+	 * Closes a repeat run so it cannot be added to anymore and, if it
+	 * suppressed any logs, produces the log that counts them.
+	 * @param run the run to close
+	 * @param destination where to put the counting log, or null to add it to the queue
+	 */
+	private void finish(Repeat run, List<Log> destination)
+	{
+		long suppressed = run.close();
+		if(suppressed <= 0)
+		{
+			return;
+		}
+		Log summary = new Log(run.first, suppressed + 1, run.getLastTime());
+		if(destination == null)
+		{
+			enqueue(summary);
+		}
+		else
+		{
+			destination.add(summary);
+		}
+	}
+	
+	/**
+	 * Closes every repeat run whose window is over, adding their counting
+	 * logs to the given list, and forgets first logs older than the window.
+	 * Runs at most a few times per window.
+	 * @param destination list to add counting logs to
+	 */
+	private void sweepRepeats(List<Log> destination)
+	{
+		long window = suppressionNanos;
+		long now = System.nanoTime();
+		if(now - nextSweepNanos < 0)
+		{
+			return;
+		}
+		nextSweepNanos = now + Math.max(window / 4, TimeUnit.MILLISECONDS.toNanos(10));
+		Instant wallNow = Instant.now();
+		for(int slot = 0; slot < RECENT_SLOTS; slot++)
+		{
+			Object held = recent.get(slot);
+			if(held instanceof Repeat)
+			{
+				Repeat run = (Repeat) held;
+				if(now - run.startNanos >= window && recent.compareAndSet(slot, run, null))
+				{
+					finish(run, destination);
+				}
+			}
+			else if(held != null && nanosBetween(((Log) held).getTime(), wallNow) >= window)
+			{
+				recent.compareAndSet(slot, held, null);
+			}
+		}
+	}
+	
+	/**
+	 * Decides if a new log fits, applying the overflow policy of its level
+	 * when it does not. The check is not atomic with adding the log, so
+	 * the capacity can be passed by at most one log per logging thread.
+	 * @param level the level of the new log
+	 * @return true if the log should be added, false if it was dropped
+	 */
+	private boolean admit(LogLevel level)
+	{
+		if(count.get() < capacity)
+		{
+			return true;
+		}
+		switch(policies.get(level.ordinal()))
+		{
+			case KEEP:
+				return true;
+			case BLOCK:
+				long deadline = System.nanoTime() + blockNanos;
+				while(count.get() >= capacity)
+				{
+					long remaining = deadline - System.nanoTime();
+					if(remaining <= 0 || Thread.currentThread().isInterrupted())
+					{
+						dropped.incrementAndGet(level.ordinal());
+						return false;
+					}
+					LockSupport.parkNanos(this, Math.min(remaining, BLOCK_SLICE_NANOS));
+				}
+				return true;
+			default:
+				dropped.incrementAndGet(level.ordinal());
+				return false;
+		}
+	}
+	
+	/**
+	 * Moves every log currently available into the given list, ordered by
+	 * their sequence numbers. Unlike getAllLogs, this does not throw when there
+	 * are no logs.
+	 * @param destination list to add the logs to
+	 * @return the amount of logs added
+	 */
+	public int drainTo(List<Log> destination)
+	{
+		int start = destination.size();
+		sweepRepeats(destination);
+		Node next;
+		while((next = head.next) != null)
+		{
+			destination.add(next.log);
+			next.log = null;
+			head = next;
+			count.decrementAndGet();
+		}
+		
+		// Logs from different threads can be published slightly out of order,
+		// so the batch is almost always sorted already and an insertion sort is linear.
+		for(int i = start + 1; i < destination.size(); i++)
+		{
+			Log current = destination.get(i);
+			int j = i - 1;
+			while(j >= start && destination.get(j).getSequence() > current.getSequence())
+			{
+				destination.set(j + 1, destination.get(j));
+				j--;
+			}
+			destination.set(j + 1, current);
+		}
+		return destination.size() - start;
+	}
+	
 	public Log getNextLog()
 	{
-		if(logs.isEmpty())
+		Node next = head.next;
+		if(next == null)
 		{
 			throw new EmptyLogException();
 		}
-		return logs.remove(0);
+		Log l = next.log;
+		next.log = null;
+		head = next;
+		count.decrementAndGet();
+		return l;
 	}
 	
 	public Log peekNextLog()
 	{
-		if(logs.isEmpty())
+		Node next = head.next;
+		if(next == null)
 		{
 			throw new EmptyLogException();
 		}
-		return logs.get(0);
+		return next.log;
+	}
+	
+	/**
+	 * Parks the calling thread until there is at least one log to retrieve.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	public void awaitLogs() throws InterruptedException
+	{
+		waiter = Thread.currentThread();
+		try
+		{
+			while(head.next == null)
+			{
+				if(Thread.interrupted())
+				{
+					throw new InterruptedException();
+				}
+				LockSupport.park(this);
+			}
+		}
+		finally
+		{
+			waiter = null;
+		}
+	}
+	
+	/**
+	 * Parks the calling thread until there is at least one log to retrieve
+	 * or the given amount of time has passed.
+	 * @param timeout the longest time to wait
+	 * @param unit the unit of the timeout
+	 * @return true if there are logs to retrieve, false if the time ran out
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	public boolean awaitLogs(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		waiter = Thread.currentThread();
+		try
+		{
+			while(head.next == null)
+			{
+				if(Thread.interrupted())
+				{
+					throw new InterruptedException();
+				}
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0)
+				{
+					return false;
+				}
+				LockSupport.parkNanos(this, remaining);
+			}
+			return true;
+		}
+		finally
+		{
+			waiter = null;
+		}
 	}
 	
 	public int size()
 	{
-		return logs.size();
+		return count.get();
 	}
 	
 	public boolean isEmpty()
 	{
 		return size() == 0;
 	}
+	
+	/**
+	 * A link in the log queue.
+	 * @author colli
+	 *
+	 */
+	private static final class Node
+	{
+		/**
+		 * The log this node holds. Cleared once it has been retrieved.
+		 */
+		private Log log;
+		
+		/**
+		 * The node logged after this one.
+		 */
+		private volatile Node next;
+		
+		/**
+		 * Constructor. Holds the given log.
+		 * @param l a log
+		 */
+		private Node(Log l)
+		{
+			log = l;
+		}
+	}
+	
+	/**
+	 * A run of repeats of a log within one suppression window.
+	 * @author colli
+	 *
+	 */
+	private static final class Repeat
+	{
+		/**
+		 * The count of a closed run.
+		 */
+		private static final long CLOSED = -1;
+		
+		/**
+		 * The first log of the run, which was added to the queue.
+		 */
+		private final Log first;
+		
+		/**
+		 * The System.nanoTime() the run started at.
+		 */
+		private final long startNanos;
+		
+		/**
+		 * The amount of suppressed repeats, or CLOSED once the run is over.
+		 */
+		private final AtomicLong suppressed;
+		
+		/**
+		 * The time of the latest repeat.
+		 */
+		private final AtomicReference<Instant> lastTime;
+		
+		/**
+		 * Constructor. Starts a run with the given log.
+		 * @param first the first log of the run
+		 * @param startNanos the System.nanoTime() of the first log
+		 */
+		private Repeat(Log first, long startNanos)
+		{
+			this.first = first;
+			this.startNanos = startNanos;
+			suppressed = new AtomicLong();
+			lastTime = new AtomicReference<Instant>(first.getTime());
+		}
+		
+		/**
+		 * Counts a repeat if the run is not over.
+		 * @param time the time of the repeat
+		 * @return true if the repeat was counted, false if the run is closed
+		 */
+		private boolean add(Instant time)
+		{
+			long current;
+			do
+			{
+				current = suppressed.get();
+				if(current == CLOSED)
+				{
+					return false;
+				}
+			}
+			while(!suppressed.compareAndSet(current, current + 1));
+			lastTime.accumulateAndGet(time, (a, b) -> a.isAfter(b) ? a : b);
+			return true;
+		}
+		
+		/**
+		 * Closes the run. Only the first call sees the real count.
+		 * @return the amount of suppressed repeats, or CLOSED if already closed
+		 */
+		private long close()
+		{
+			return suppressed.getAndSet(CLOSED);
+		}
+		
+		/**
+		 * Gets the time of the latest repeat.
+		 * @return an Instant time
+		 */
+		private Instant getLastTime()
+		{
+			return lastTime.get();
+		}
+	}
 }
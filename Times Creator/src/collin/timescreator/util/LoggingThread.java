@@ -1,19 +1,39 @@
 package collin.timescreator.util;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A Thread that uses a Logger to log information to stdout. 
+ * A Thread that uses a Logger to write logs to its LogSinks.
+ * By default it only has a sink for stdout.
  * @author colli
  *
  */
 public class LoggingThread extends Thread
 {
+	/**
+	 * How long the thread waits for new logs before flushing its sinks, in milliseconds.
+	 */
+	private static final long IDLE_FLUSH_MILLIS = 500;
+	
 	/**
 	 * A logger that stores logs.
 	 */
 	private Logger logger;
 	
+	/**
+	 * Where the logs are written to.
+	 */
+	private final List<LogSink> sinks;
+	
+	/**
+	 * The dropped counts of each log level, by ordinal, that have already been reported.
+	 */
+	private final long[] reportedDrops;
+	
 	/**
 	 * Constructor. Makes a default logger.
 	 */
@@ -30,6 +50,9 @@ public class LoggingThread extends Thread
 	public LoggingThread(Logger l) throws NullPointerException
 	{
 		setLogger(l);
+		sinks = new CopyOnWriteArrayList<LogSink>();
+		sinks.add(new ConsoleLogSink());
+		reportedDrops = new long[LogLevel.values().length];
 	}
 	
 	/**
@@ -56,33 +79,168 @@ public class LoggingThread extends Thread
 	}
 	
 	/**
-	 * Method to run when this thread starts.
+	 * Adds a sink that all following logs will be written to.
+	 * @param sink a log sink
+	 * @throws NullPointerException if the given sink is null
+	 */
+	public void addSink(LogSink sink) throws NullPointerException
+	{
+		if(sink == null)
+		{
+			throw new NullPointerException();
+		}
+		sinks.add(sink);
+	}
+	
+	/**
+	 * Removes a sink. The sink is not closed.
+	 * @param sink a log sink
+	 * @return true if the sink was removed, false if it was never added
+	 */
+	public boolean removeSink(LogSink sink)
+	{
+		return sinks.remove(sink);
+	}
+	
+	/**
+	 * Retrieves the sinks that logs are written to.
+	 * @return a list of sinks
+	 */
+	public List<LogSink> getSinks()
+	{
+		return sinks;
+	}
+	
+	/**
+	 * Method to run when this thread starts. Sleeps until logs
+	 * are available, then writes them all to every sink. Sinks are flushed
+	 * whenever no logs have come in for a while. Any logs left when this
+	 * thread is interrupted are written before the sinks are closed.
 	 */
 	@Override
 	public void run()
 	{
+		List<Log> logs = new ArrayList<Log>();
 		while(!isInterrupted())
 		{
 			try
 			{
-				Thread.sleep(100);
+				if(logger.awaitLogs(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS))
+				{
+					write(logs);
+				}
+				else
+				{
+					// Finished runs of suppressed repeats are only handed out when draining.
+					write(logs);
+					flush();
+				}
 			} catch (InterruptedException e)
 			{
-				return;
+				break;
 			}
-			if(!logger.isEmpty())
+		}
+		write(logs);
+		close();
+	}
+	
+	/**
+	 * Retrieves every available log and writes them to every sink.
+	 * @param logs a reusable list to hold the retrieved logs
+	 */
+	private void write(List<Log> logs)
+	{
+		logs.clear();
+		logger.drainTo(logs);
+		addDropSummary(logs);
+		if(logs.isEmpty())
+		{
+			return;
+		}
+		for(LogSink sink : sinks)
+		{
+			try
 			{
-				List<Log> logs = logger.getAllLogs();
-				for(Log l : logs)
-				{
-					String[] lines = l.getMessage().split("\n");
-					System.out.printf("LOG-- %30s [%s]:\n", l.getTime(), l.getLogLevel());
-					for(int i = 0; i < lines.length; i++)
-					{
-						System.out.printf("\t%s\n", lines[i]);
-					}
-				}
+				sink.write(logs);
+			}
+			catch(IOException e)
+			{
+				sinkFailed(sink, e);
+			}
+		}
+		logs.clear();
+	}
+	
+	/**
+	 * Adds a warning to the batch if the logger dropped logs since the
+	 * last report. The warning skips the logger, which may still be full.
+	 * @param logs the batch about to be written
+	 */
+	private void addDropSummary(List<Log> logs)
+	{
+		StringBuilder summary = null;
+		LogLevel[] levels = LogLevel.values();
+		for(int i = 0; i < levels.length; i++)
+		{
+			long total = logger.getDroppedCount(levels[i]);
+			long newDrops = total - reportedDrops[i];
+			if(newDrops > 0)
+			{
+				summary = summary == null ? new StringBuilder("Logger was full and dropped") : summary.append(',');
+				summary.append(' ').append(newDrops).append(' ').append(levels[i]).append(" logs");
+				reportedDrops[i] = total;
+			}
+		}
+		if(summary != null)
+		{
+			logs.add(new Log(summary.toString(), LogLevel.WARNING));
+		}
+	}
+	
+	/**
+	 * Flushes every sink.
+	 */
+	private void flush()
+	{
+		for(LogSink sink : sinks)
+		{
+			try
+			{
+				sink.flush();
+			}
+			catch(IOException e)
+			{
+				sinkFailed(sink, e);
 			}
 		}
 	}
+	
+	/**
+	 * Closes every sink.
+	 */
+	private void close()
+	{
+		for(LogSink sink : sinks)
+		{
+			try
+			{
+				sink.close();
+			}
+			catch(IOException e)
+			{
+				sinkFailed(sink, e);
+			}
+		}
+	}
+	
+	/**
+	 * Reports a sink that could not be written to. This cannot go through
+	 * the logger, since the logs would only end up back at the same sink.
+	 * @param sink the sink that failed
+	 * @param e the reason it failed
+	 */
+	private void sinkFailed(LogSink sink, IOException e)
+	{
+		System.err.printf("Log sink %s failed: %s\n", sink.getClass().getSimpleName(), e.getMessage());
+	}
 }
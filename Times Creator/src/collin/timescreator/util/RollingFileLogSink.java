@@ -0,0 +1,446 @@
+package collin.timescreator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * A LogSink that appends logs to files in a directory. Logs are collected in
+ * a buffer and written to the current file in batches, either once the buffer
+ * holds enough bytes or once enough time has passed since the last write.
+ * A new file is started every day and whenever the current file grows too large.
+ * Files are named baseName-yyyy-mm-dd.N.log, where N counts up within a day
+ * and the extension may be changed.
+ * Next to every log file is a sparse index, named after the file with .idx
+ * added, that LogQuery uses to jump straight to a time range. The index is
+ * a list of (epoch milliseconds, byte offset) pairs, one for the first log
+ * written to the file in each run and one roughly every indexInterval bytes.
+ * @author colli
+ *
+ */
+public class RollingFileLogSink implements LogSink
+{
+	/**
+	 * Default largest size of a single log file, in bytes.
+	 */
+	public static final long DEFAULT_MAX_FILE_SIZE = 10 * 1024 * 1024;
+	
+	/**
+	 * Default amount of buffered bytes that causes a write to the file.
+	 */
+	public static final int DEFAULT_FLUSH_THRESHOLD = 32 * 1024;
+	
+	/**
+	 * Default longest time logs stay in the buffer before being written.
+	 */
+	public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+	
+	/**
+	 * Default amount of log bytes between index entries.
+	 */
+	public static final int DEFAULT_INDEX_INTERVAL = 64 * 1024;
+	
+	/**
+	 * Added to a log file's name to get the name of its index.
+	 */
+	public static final String INDEX_EXTENSION = ".idx";
+	
+	/**
+	 * The size of an index entry in bytes: the time and the offset.
+	 */
+	static final int INDEX_ENTRY_SIZE = 2 * Long.BYTES;
+	
+	/**
+	 * Default extension of every log file.
+	 */
+	public static final String DEFAULT_EXTENSION = ".log";
+	
+	/**
+	 * The directory the log files are in.
+	 */
+	private final Path directory;
+	
+	/**
+	 * The start of every log file name.
+	 */
+	private final String baseName;
+	
+	/**
+	 * The end of every log file name.
+	 */
+	private final String extension;
+	
+	/**
+	 * Formats each log before it is written.
+	 */
+	private final LogFormatter formatter;
+	
+	/**
+	 * The time zone used to decide which day a log belongs to.
+	 */
+	private final ZoneId zone;
+	
+	/**
+	 * Largest size of a single log file, in bytes.
+	 */
+	private long maxFileSize;
+	
+	/**
+	 * Amount of buffered bytes that causes a write to the file.
+	 */
+	private int flushThreshold;
+	
+	/**
+	 * Longest time logs stay in the buffer before being written, in nanoseconds.
+	 */
+	private long flushIntervalNanos;
+	
+	/**
+	 * The file currently being written to, or null if none is open.
+	 */
+	private FileChannel channel;
+	
+	/**
+	 * The path of the file currently being written to.
+	 */
+	private Path currentFile;
+	
+	/**
+	 * The day the current file belongs to.
+	 */
+	private LocalDate currentDay;
+	
+	/**
+	 * The number of the current file within its day.
+	 */
+	private int currentIndex;
+	
+	/**
+	 * The amount of bytes already written to the current file.
+	 */
+	private long currentSize;
+	
+	/**
+	 * Formatted logs waiting to be written to the current file.
+	 */
+	private final LogBuffer buffer;
+	
+	/**
+	 * The System.nanoTime() of the last write to the file.
+	 */
+	private long lastFlushNanos;
+	
+	/**
+	 * The index of the current file, or null if none is open.
+	 */
+	private FileChannel indexChannel;
+	
+	/**
+	 * Index entries waiting to be written. They are only written after
+	 * the logs they point at, so an index never points past its file.
+	 */
+	private final ByteBuffer indexBuffer;
+	
+	/**
+	 * Amount of log bytes between index entries.
+	 */
+	private int indexInterval;
+	
+	/**
+	 * The offset of the last index entry, or -1 if the current file
+	 * has none yet in this run.
+	 */
+	private long lastIndexedOffset;
+	
+	/**
+	 * Constructor. Uses the default extension, sizes and interval.
+	 * @param directory the directory to put log files in
+	 * @param baseName the start of every log file name
+	 * @param formatter formatter for each log
+	 * @throws NullPointerException if any argument is null
+	 */
+	public RollingFileLogSink(Path directory, String baseName, LogFormatter formatter) throws NullPointerException
+	{
+		this(directory, baseName, DEFAULT_EXTENSION, formatter);
+	}
+	
+	/**
+	 * Constructor. Uses the default sizes and interval.
+	 * @param directory the directory to put log files in
+	 * @param baseName the start of every log file name
+	 * @param extension the end of every log file name, such as ".log"
+	 * @param formatter formatter for each log
+	 * @throws NullPointerException if any argument is null
+	 */
+	public RollingFileLogSink(Path directory, String baseName, String extension, LogFormatter formatter) throws NullPointerException
+	{
+		if(directory == null || baseName == null || extension == null || formatter == null)
+		{
+			throw new NullPointerException();
+		}
+		this.directory = directory;
+		this.baseName = baseName;
+		this.extension = extension;
+		this.formatter = formatter;
+		zone = ZoneId.systemDefault();
+		buffer = new LogBuffer(DEFAULT_FLUSH_THRESHOLD * 2);
+		indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 256);
+		indexInterval = DEFAULT_INDEX_INTERVAL;
+		setMaxFileSize(DEFAULT_MAX_FILE_SIZE);
+		setFlushThreshold(DEFAULT_FLUSH_THRESHOLD);
+		setFlushInterval(DEFAULT_FLUSH_INTERVAL);
+		lastFlushNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Sets the largest size of a single log file. A file may go over this
+	 * by at most one log.
+	 * @param bytes size in bytes
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public void setMaxFileSize(long bytes) throws IllegalArgumentException
+	{
+		if(bytes <= 0)
+		{
+			throw new IllegalArgumentException(String.valueOf(bytes));
+		}
+		maxFileSize = bytes;
+	}
+	
+	/**
+	 * Sets the amount of buffered bytes that causes a write to the file.
+	 * @param bytes amount of bytes
+	 * @throws IllegalArgumentException if the amount is not positive
+	 */
+	public void setFlushThreshold(int bytes) throws IllegalArgumentException
+	{
+		if(bytes <= 0)
+		{
+			throw new IllegalArgumentException(String.valueOf(bytes));
+		}
+		flushThreshold = bytes;
+	}
+	
+	/**
+	 * Sets the longest time logs stay in the buffer before being written.
+	 * @param interval a duration
+	 * @throws IllegalArgumentException if the interval is negative
+	 */
+	public void setFlushInterval(Duration interval) throws IllegalArgumentException
+	{
+		if(interval.isNegative())
+		{
+			throw new IllegalArgumentException(interval.toString());
+		}
+		flushIntervalNanos = interval.toNanos();
+	}
+	
+	/**
+	 * Sets the amount of log bytes between index entries. Smaller intervals
+	 * make queries read less at the cost of a larger index.
+	 * @param bytes amount of bytes
+	 * @throws IllegalArgumentException if the amount is not positive
+	 */
+	public void setIndexInterval(int bytes) throws IllegalArgumentException
+	{
+		if(bytes <= 0)
+		{
+			throw new IllegalArgumentException(String.valueOf(bytes));
+		}
+		indexInterval = bytes;
+	}
+	
+	/**
+	 * Gets the file currently being written to.
+	 * @return a path, or null if no file has been opened yet
+	 */
+	public Path getCurrentFile()
+	{
+		return currentFile;
+	}
+	
+	/**
+	 * Adds logs to the buffer, starting new files as needed, and writes the
+	 * buffer out once it is full enough or old enough.
+	 * @param logs logs ordered from oldest to newest
+	 * @throws IOException if a file could not be opened or written to
+	 */
+	@Override
+	public void write(List<Log> logs) throws IOException
+	{
+		for(Log l : logs)
+		{
+			LocalDate day = LocalDate.ofInstant(l.getTime(), zone);
+			if(channel == null || !day.equals(currentDay)
+					|| currentSize + buffer.length() >= maxFileSize)
+			{
+				roll(day);
+			}
+			
+			long offset = currentSize + buffer.length();
+			if(lastIndexedOffset < 0 || offset - lastIndexedOffset >= indexInterval)
+			{
+				addIndexEntry(l.getTime().toEpochMilli(), offset);
+			}
+			formatter.format(l, buffer);
+			if(buffer.length() >= flushThreshold)
+			{
+				flushBuffer();
+			}
+		}
+		if(System.nanoTime() - lastFlushNanos >= flushIntervalNanos)
+		{
+			flush();
+		}
+	}
+	
+	/**
+	 * Writes anything in the buffer to the current file.
+	 * @throws IOException if the file could not be written to
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		flushBuffer();
+		lastFlushNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Writes anything in the buffer and closes the current file.
+	 * @throws IOException if the file could not be written to or closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if(channel != null)
+		{
+			try
+			{
+				flush();
+				channel.force(false);
+			}
+			finally
+			{
+				try
+				{
+					channel.close();
+				}
+				finally
+				{
+					channel = null;
+					indexChannel.close();
+					indexChannel = null;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes the buffer to the current file without touching the flush timer.
+	 * @throws IOException if the file could not be written to
+	 */
+	private void flushBuffer() throws IOException
+	{
+		if(channel == null || buffer.length() == 0)
+		{
+			return;
+		}
+		currentSize += buffer.writeTo(channel);
+		buffer.clear();
+		
+		indexBuffer.flip();
+		while(indexBuffer.hasRemaining())
+		{
+			indexChannel.write(indexBuffer);
+		}
+		indexBuffer.clear();
+	}
+	
+	/**
+	 * Adds an entry to the index of the current file, writing out the
+	 * buffer first if the entries waiting have filled it.
+	 * @param epochMillis the time of the log at the offset
+	 * @param offset where the log starts in the file
+	 * @throws IOException if the file or its index could not be written to
+	 */
+	private void addIndexEntry(long epochMillis, long offset) throws IOException
+	{
+		if(indexBuffer.remaining() < INDEX_ENTRY_SIZE)
+		{
+			flushBuffer();
+		}
+		indexBuffer.putLong(epochMillis).putLong(offset);
+		lastIndexedOffset = offset;
+	}
+	
+	/**
+	 * Closes the current file and opens the next one for the given day.
+	 * An existing file from an earlier run is appended to if it still has room.
+	 * @param day the day of the next log
+	 * @throws IOException if the next file could not be opened
+	 */
+	private void roll(LocalDate day) throws IOException
+	{
+		close();
+		if(!day.equals(currentDay))
+		{
+			currentDay = day;
+			currentIndex = 0;
+		}
+		else
+		{
+			currentIndex++;
+		}
+		
+		Files.createDirectories(directory);
+		Path file = fileFor(currentDay, currentIndex);
+		while(Files.exists(file) && Files.size(file) >= maxFileSize)
+		{
+			file = fileFor(currentDay, ++currentIndex);
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		try
+		{
+			indexChannel = FileChannel.open(indexFor(file), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+		catch(IOException e)
+		{
+			channel.close();
+			channel = null;
+			throw e;
+		}
+		currentFile = file;
+		currentSize = channel.size();
+		lastIndexedOffset = -1;
+	}
+	
+	/**
+	 * Gets the path of a log file.
+	 * @param day the day of the file
+	 * @param index the number of the file within its day
+	 * @return a path inside the directory
+	 */
+	private Path fileFor(LocalDate day, int index)
+	{
+		return directory.resolve(baseName + "-" + day + "." + index + extension);
+	}
+	
+	/**
+	 * Gets the path of the index of a log file.
+	 * @param file a log file
+	 * @return the path of its index
+	 */
+	public static Path indexFor(Path file)
+	{
+		return file.resolveSibling(file.getFileName() + INDEX_EXTENSION);
+	}
+}
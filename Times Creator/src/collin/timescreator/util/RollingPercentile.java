@@ -0,0 +1,95 @@
+package collin.timescreator.util;
+
+import java.util.Arrays;
+
+/**
+ * Estimates percentiles of the most recent samples of something, such as
+ * how long a page takes to load. Only the last window of samples is kept,
+ * so the estimate follows changes in load instead of averaging them away.
+ * Safe to use from many threads.
+ * @author colli
+ *
+ */
+public class RollingPercentile
+{
+	/**
+	 * Default amount of samples kept.
+	 */
+	public static final int DEFAULT_WINDOW = 128;
+	
+	/**
+	 * The samples, oldest overwritten first.
+	 */
+	private final long[] samples;
+	
+	/**
+	 * Room for sorting the samples.
+	 */
+	private final long[] sorted;
+	
+	/**
+	 * The amount of samples recorded so far.
+	 */
+	private long count;
+	
+	/**
+	 * Constructor. Keeps the default amount of samples.
+	 */
+	public RollingPercentile()
+	{
+		this(DEFAULT_WINDOW);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param window the amount of samples kept
+	 * @throws IllegalArgumentException if the window is not positive
+	 */
+	public RollingPercentile(int window) throws IllegalArgumentException
+	{
+		if(window <= 0)
+			throw new IllegalArgumentException(String.valueOf(window));
+		samples = new long[window];
+		sorted = new long[window];
+	}
+	
+	/**
+	 * Records a sample, dropping the oldest one if the window is full.
+	 * @param sample the sample
+	 */
+	public synchronized void record(long sample)
+	{
+		samples[(int) (count++ % samples.length)] = sample;
+	}
+	
+	/**
+	 * Gets the amount of samples kept.
+	 * @return amount of samples, at most the window
+	 */
+	public synchronized int size()
+	{
+		return (int) Math.min(count, samples.length);
+	}
+	
+	/**
+	 * Estimates a percentile of the samples kept, by nearest rank.
+	 * @param percentile the percentile, from 0 to 100
+	 * @param none what to return if there are no samples
+	 * @return the smallest sample at or above the given percent of the samples
+	 * @throws IllegalArgumentException if the percentile is not from 0 to 100
+	 */
+	public synchronized long percentile(double percentile, long none) throws IllegalArgumentException
+	{
+		if(!(percentile >= 0 && percentile <= 100))
+			throw new IllegalArgumentException(String.valueOf(percentile));
+		int size = (int) Math.min(count, samples.length);
+		if(size == 0)
+		{
+			return none;
+		}
+		System.arraycopy(samples, 0, sorted, 0, size);
+		Arrays.sort(sorted, 0, size);
+		int rank = (int) Math.ceil(percentile / 100 * size);
+		return sorted[Math.max(rank - 1, 0)];
+	}
+}
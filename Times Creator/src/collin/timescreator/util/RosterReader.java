@@ -0,0 +1,434 @@
+package collin.timescreator.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a roster file one row at a time, so a file of any size is read
+ * with the memory of one row. Each row is one tutor's shifts for one day:
+ * <pre>
+ * netID,Monday,08:00-09:30,13:00-14:00
+ * netID,Tuesday,None
+ * </pre>
+ * Blank lines and lines starting with '#' are skipped. A row that cannot
+ * be read is handed to the ErrorHandler and skipped, and reading goes on
+ * with the next line.
+ * <p>
+ * Files saved before rosters, seven lines of shifts from Monday to
+ * Sunday without a tutor or day, are read as rows of the tutor "". A
+ * line is only read this way if its second field is not a day, so a
+ * tutor may start with a digit.
+ * @author colli
+ *
+ */
+public class RosterReader implements Closeable
+{
+	/**
+	 * The character set of roster files.
+	 */
+	public static final Charset CHARSET = StandardCharsets.UTF_8;
+	
+	/**
+	 * Separates the fields of a row.
+	 */
+	public static final char SEPARATOR = ',';
+	
+	/**
+	 * Written in place of the shifts of a day without any.
+	 */
+	public static final String NONE = "None";
+	
+	/**
+	 * Starts a line that is skipped.
+	 */
+	public static final char COMMENT = '#';
+	
+	/**
+	 * What bytes that are not UTF-8 are read as.
+	 */
+	private static final char REPLACEMENT = '\uFFFD';
+	
+	/**
+	 * The full English name of each day of the week, indexed by its ordinal.
+	 */
+	static final String[] DAY_NAMES = new String[DayOfWeek.values().length];
+	
+	static
+	{
+		for(DayOfWeek day : DayOfWeek.values())
+		{
+			DAY_NAMES[day.ordinal()] = day.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+		}
+	}
+	
+	/**
+	 * Reads the file.
+	 */
+	private final BufferedReader reader;
+	
+	/**
+	 * Told about rows that cannot be read.
+	 */
+	private final ErrorHandler errors;
+	
+	/**
+	 * The line number of the current row, counting from 1.
+	 */
+	private long lineNumber;
+	
+	/**
+	 * The amount of rows read without a tutor or day.
+	 */
+	private int legacyRows;
+	
+	/**
+	 * The amount of rows that could not be read.
+	 */
+	private int errorCount;
+	
+	/**
+	 * The text of the current row.
+	 */
+	private String line;
+	
+	/**
+	 * The tutor of the current row.
+	 */
+	private String tutor;
+	
+	/**
+	 * The day of the current row.
+	 */
+	private DayOfWeek day;
+	
+	/**
+	 * Start and stop minutes of the current row's shifts.
+	 */
+	private int[] shifts;
+	
+	/**
+	 * The amount of shifts of the current row.
+	 */
+	private int shiftCount;
+	
+	/**
+	 * Opens a roster file.
+	 * @param file the file
+	 * @param errors told about rows that cannot be read
+	 * @throws IOException if the file could not be opened
+	 * @throws NullPointerException if either argument is null
+	 */
+	public RosterReader(Path file, ErrorHandler errors) throws IOException, NullPointerException
+	{
+		if(errors == null)
+			throw new NullPointerException();
+		this.reader = new BufferedReader(Channels.newReader(Files.newByteChannel(file),
+				CHARSET.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE), -1));
+		this.errors = errors;
+		shifts = new int[16];
+	}
+	
+	/**
+	 * Reads every row of a roster file into a schedule for each tutor.
+	 * Rows of the same tutor and day add to each other.
+	 * @param file the file
+	 * @param errors told about rows that cannot be read
+	 * @return each tutor's schedule, in the order tutors first appear
+	 * @throws IOException if the file could not be read
+	 */
+	public static Map<String, WeekSchedule> readAll(Path file, ErrorHandler errors) throws IOException
+	{
+		Map<String, WeekSchedule.Builder> builders = new LinkedHashMap<String, WeekSchedule.Builder>();
+		try(RosterReader roster = new RosterReader(file, errors))
+		{
+			while(roster.next())
+			{
+				roster.addTo(builders.computeIfAbsent(roster.getTutor(), t -> new WeekSchedule.Builder()));
+			}
+		}
+		Map<String, WeekSchedule> schedules = new LinkedHashMap<String, WeekSchedule>(builders.size() * 2);
+		builders.forEach((t, builder) -> schedules.put(t, builder.build()));
+		return schedules;
+	}
+	
+	/**
+	 * Reads the next row, skipping any that cannot be read.
+	 * @return true if there was a row, false at the end of the file
+	 * @throws IOException if the file could not be read
+	 */
+	public boolean next() throws IOException
+	{
+		String line;
+		while((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			if(line.trim().isEmpty() || line.charAt(0) == COMMENT)
+			{
+				continue;
+			}
+			String message = readRow(line);
+			if(message == null)
+			{
+				this.line = line;
+				return true;
+			}
+			errorCount++;
+			errors.error(lineNumber, line, message);
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads a line as the current row.
+	 * @param line the line
+	 * @return what is wrong with the row, or null if it was read
+	 */
+	private String readRow(String line)
+	{
+		shiftCount = 0;
+		// Bytes that are not UTF-8 are read as replacement characters rather than ending the file.
+		if(line.indexOf(REPLACEMENT) >= 0)
+		{
+			return "Not UTF-8 text";
+		}
+		int position;
+		int tutorEnd = line.indexOf(SEPARATOR);
+		int dayEnd = tutorEnd < 0 ? -1 : line.indexOf(SEPARATOR, tutorEnd + 1);
+		if(dayEnd < 0)
+		{
+			dayEnd = line.length();
+		}
+		DayOfWeek rowDay = tutorEnd < 0 ? null : findDay(line, tutorEnd + 1, dayEnd);
+		if(rowDay != null)
+		{
+			if(tutorEnd == 0)
+			{
+				return "Missing tutor";
+			}
+			tutor = line.substring(0, tutorEnd).trim();
+			day = rowDay;
+			position = dayEnd + 1;
+		}
+		else if(line.charAt(0) >= '0' && line.charAt(0) <= '9' || isNone(line, 0))
+		{
+			// Only a line without a day field is read as a row saved before rosters.
+			if(legacyRows == DAY_NAMES.length)
+			{
+				return "More than " + DAY_NAMES.length + " rows without a tutor";
+			}
+			tutor = "";
+			day = DayOfWeek.of(++legacyRows);
+			position = 0;
+		}
+		else
+		{
+			return tutorEnd <= 0 ? "Missing tutor or day" : "Unknown day";
+		}
+		
+		if(position >= line.length() || isNone(line, position))
+		{
+			return null;
+		}
+		while(true)
+		{
+			int start = TimeParser.parse(line, position);
+			if(start == TimeParser.ERROR || TimeParser.endOf(start) >= line.length() || line.charAt(TimeParser.endOf(start)) != '-')
+			{
+				return "Bad shift at column " + (position + 1);
+			}
+			int stop = TimeParser.parse(line, TimeParser.endOf(start) + 1);
+			if(stop == TimeParser.ERROR)
+			{
+				return "Bad shift at column " + (position + 1);
+			}
+			if(shiftCount * 2 == shifts.length)
+			{
+				shifts = Arrays.copyOf(shifts, shifts.length * 2);
+			}
+			shifts[shiftCount * 2] = TimeParser.minuteOf(start);
+			shifts[shiftCount * 2 + 1] = TimeParser.minuteOf(stop);
+			shiftCount++;
+			position = TimeParser.endOf(stop);
+			if(position == line.length())
+			{
+				return null;
+			}
+			if(line.charAt(position) != SEPARATOR)
+			{
+				return "Bad shift at column " + (position + 1);
+			}
+			position++;
+		}
+	}
+	
+	/**
+	 * Checks if the rest of a line is the text for no shifts.
+	 * @param line the line
+	 * @param position where the rest starts
+	 * @return true if the rest is NONE
+	 */
+	private static boolean isNone(String line, int position)
+	{
+		return line.length() - position == NONE.length() && line.regionMatches(true, position, NONE, 0, NONE.length());
+	}
+	
+	/**
+	 * Finds the day named by part of a line, ignoring case and surrounding spaces.
+	 * @param line the line
+	 * @param from where the name starts
+	 * @param to where the name ends
+	 * @return the day, or null if it is not the full English name of a day
+	 */
+	private static DayOfWeek findDay(String line, int from, int to)
+	{
+		while(from < to && line.charAt(from) == ' ')
+		{
+			from++;
+		}
+		while(to > from && line.charAt(to - 1) == ' ')
+		{
+			to--;
+		}
+		for(int d = 0; d < DAY_NAMES.length; d++)
+		{
+			if(DAY_NAMES[d].length() == to - from && line.regionMatches(true, from, DAY_NAMES[d], 0, to - from))
+			{
+				return DayOfWeek.of(d + 1);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Adds the shifts of the current row to a schedule being built.
+	 * @param builder the schedule
+	 * @throws IllegalArgumentException if a shift is not within a day
+	 */
+	public void addTo(WeekSchedule.Builder builder) throws IllegalArgumentException
+	{
+		for(int i = 0; i < shiftCount; i++)
+		{
+			builder.add(day, shifts[i * 2], shifts[i * 2 + 1]);
+		}
+	}
+	
+	/**
+	 * Gets the text of the current row, as it is in the file.
+	 * @return the row's line
+	 */
+	public String getLine()
+	{
+		return line;
+	}
+	
+	/**
+	 * Gets the tutor of the current row.
+	 * @return the tutor, "" for files saved before rosters
+	 */
+	public String getTutor()
+	{
+		return tutor;
+	}
+	
+	/**
+	 * Gets the day of the current row.
+	 * @return the day
+	 */
+	public DayOfWeek getDay()
+	{
+		return day;
+	}
+	
+	/**
+	 * Gets the amount of shifts of the current row.
+	 * @return amount of shifts, 0 for a day without any
+	 */
+	public int getShiftCount()
+	{
+		return shiftCount;
+	}
+	
+	/**
+	 * Gets when a shift of the current row starts.
+	 * @param index the index of the shift in the row
+	 * @return minutes since midnight
+	 * @throws IndexOutOfBoundsException if the row has no such shift
+	 */
+	public int getStartMinute(int index) throws IndexOutOfBoundsException
+	{
+		if(index < 0 || index >= shiftCount)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		return shifts[index * 2];
+	}
+	
+	/**
+	 * Gets when a shift of the current row stops.
+	 * @param index the index of the shift in the row
+	 * @return minutes since midnight
+	 * @throws IndexOutOfBoundsException if the row has no such shift
+	 */
+	public int getStopMinute(int index) throws IndexOutOfBoundsException
+	{
+		if(index < 0 || index >= shiftCount)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		return shifts[index * 2 + 1];
+	}
+	
+	/**
+	 * Gets the line number of the current row.
+	 * @return the line number, counting from 1
+	 */
+	public long getLineNumber()
+	{
+		return lineNumber;
+	}
+	
+	/**
+	 * Gets the amount of rows so far that could not be read.
+	 * @return amount of rows skipped for errors
+	 */
+	public int getErrorCount()
+	{
+		return errorCount;
+	}
+	
+	/**
+	 * Closes the file.
+	 * @throws IOException if the file could not be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+	
+	/**
+	 * Told about each row of a roster file that cannot be read.
+	 * @author colli
+	 *
+	 */
+	@FunctionalInterface
+	public interface ErrorHandler
+	{
+		/**
+		 * Receives a row that cannot be read.
+		 * @param lineNumber the line number of the row, counting from 1
+		 * @param line the text of the row
+		 * @param message what is wrong with it
+		 */
+		public abstract void error(long lineNumber, String line, String message);
+	}
+}
@@ -0,0 +1,224 @@
+package collin.timescreator.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+
+/**
+ * Writes a roster file one row at a time, in the form a RosterReader
+ * reads: one row per tutor and day, with the day's shifts as HH:MM-HH:MM
+ * or None. Nothing is kept but the write buffer, so a roster of any size
+ * is written with the same memory.
+ * @author colli
+ *
+ */
+public class RosterWriter implements Closeable, Flushable
+{
+	/**
+	 * Writes the file.
+	 */
+	private final BufferedWriter writer;
+	
+	/**
+	 * Creates a roster file, or empties it if it exists.
+	 * @param file the file
+	 * @throws IOException if the file could not be opened
+	 */
+	public RosterWriter(Path file) throws IOException
+	{
+		writer = new BufferedWriter(Channels.newWriter(Files.newByteChannel(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), RosterReader.CHARSET.newEncoder(), -1));
+	}
+	
+	/**
+	 * Saves a tutor's week into a roster file without touching the rows of
+	 * any other tutor. The file is streamed row by row into a new file
+	 * beside it, with the tutor's old rows replaced by the week where the
+	 * first of them was, or added at the end if there were none. Rows of
+	 * a file saved before rosters are taken as the tutor's, and rows that
+	 * cannot be read are kept as they were; blank lines and comments are
+	 * dropped. The new file is then moved over the old one, so the roster
+	 * is never left half written.
+	 * @param file the roster file, which need not exist
+	 * @param tutor who the tutor is, such as their netID
+	 * @param schedule the tutor's shifts
+	 * @throws IOException if the file could not be read or written
+	 * @throws IllegalArgumentException if the tutor is not valid by isValidTutor
+	 */
+	public static void replace(Path file, String tutor, WeekSchedule schedule) throws IOException, IllegalArgumentException
+	{
+		if(!isValidTutor(tutor))
+			throw new IllegalArgumentException(tutor);
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try
+		{
+			try(RosterWriter writer = new RosterWriter(temporary))
+			{
+				boolean written = false;
+				if(Files.exists(file))
+				{
+					try(RosterReader reader = new RosterReader(file, (lineNumber, line, message) -> writer.writeLineUnchecked(line)))
+					{
+						while(reader.next())
+						{
+							if(!reader.getTutor().equals(tutor) && !reader.getTutor().isEmpty())
+							{
+								writer.writeLine(reader.getLine());
+							}
+							else if(!written)
+							{
+								writer.write(tutor, schedule);
+								written = true;
+							}
+						}
+					}
+					catch(UncheckedIOException e)
+					{
+						throw e.getCause();
+					}
+				}
+				if(!written)
+				{
+					writer.write(tutor, schedule);
+				}
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(IOException | RuntimeException e)
+		{
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Checks if a tutor can be written in a roster and read back the same:
+	 * not empty, without spaces around it, a separator or a line break, and
+	 * not starting like a comment.
+	 * @param tutor who the tutor is, such as their netID
+	 * @return true if rows can be written for the tutor
+	 */
+	public static boolean isValidTutor(String tutor)
+	{
+		return tutor != null && !tutor.isEmpty() && tutor.trim().equals(tutor) && tutor.charAt(0) != RosterReader.COMMENT
+				&& tutor.indexOf(RosterReader.SEPARATOR) < 0 && tutor.indexOf('\n') < 0 && tutor.indexOf('\r') < 0;
+	}
+	
+	/**
+	 * Writes a line as it is, such as a row copied from another roster.
+	 * @param line the line, without a line break
+	 * @throws IOException if the file could not be written
+	 */
+	public void writeLine(String line) throws IOException
+	{
+		writer.write(line);
+		writer.newLine();
+	}
+	
+	/**
+	 * Writes a line as it is, for callers that cannot throw IOException.
+	 * @param line the line, without a line break
+	 * @throws UncheckedIOException if the file could not be written
+	 */
+	private void writeLineUnchecked(String line) throws UncheckedIOException
+	{
+		try
+		{
+			writeLine(line);
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Writes a row for each day of a tutor's week, None for days without shifts.
+	 * @param tutor who the tutor is, such as their netID
+	 * @param schedule the tutor's shifts
+	 * @throws IOException if the file could not be written
+	 * @throws IllegalArgumentException if the tutor is not valid by isValidTutor
+	 */
+	public void write(String tutor, WeekSchedule schedule) throws IOException, IllegalArgumentException
+	{
+		for(DayOfWeek day : DayOfWeek.values())
+		{
+			writeRow(tutor, day, schedule);
+		}
+	}
+	
+	/**
+	 * Writes a row of a tutor's shifts for one day.
+	 * @param tutor who the tutor is, such as their netID
+	 * @param day the day
+	 * @param schedule the tutor's shifts
+	 * @throws IOException if the file could not be written
+	 * @throws IllegalArgumentException if the tutor is not valid by isValidTutor
+	 */
+	public void writeRow(String tutor, DayOfWeek day, WeekSchedule schedule) throws IOException, IllegalArgumentException
+	{
+		if(!isValidTutor(tutor))
+			throw new IllegalArgumentException(tutor);
+		writer.write(tutor);
+		writer.write(RosterReader.SEPARATOR);
+		writer.write(RosterReader.DAY_NAMES[day.ordinal()]);
+		int count = schedule.getShiftCount(day);
+		if(count == 0)
+		{
+			writer.write(RosterReader.SEPARATOR);
+			writer.write(RosterReader.NONE);
+		}
+		for(int i = 0; i < count; i++)
+		{
+			writer.write(RosterReader.SEPARATOR);
+			writeTime(schedule.getStartMinute(day, i));
+			writer.write('-');
+			writeTime(schedule.getStopMinute(day, i));
+		}
+		writer.newLine();
+	}
+	
+	/**
+	 * Writes a minute of the day as HH:MM.
+	 * @param minute minutes since midnight
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeTime(int minute) throws IOException
+	{
+		int hour = minute / 60;
+		minute %= 60;
+		writer.write('0' + hour / 10);
+		writer.write('0' + hour % 10);
+		writer.write(':');
+		writer.write('0' + minute / 10);
+		writer.write('0' + minute % 10);
+	}
+	
+	/**
+	 * Writes out any rows still in the buffer.
+	 * @throws IOException if the file could not be written
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		writer.flush();
+	}
+	
+	/**
+	 * Writes out any rows still in the buffer and closes the file.
+	 * @throws IOException if the file could not be written or closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		writer.close();
+	}
+}
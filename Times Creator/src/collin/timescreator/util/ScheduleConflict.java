@@ -0,0 +1,165 @@
+package collin.timescreator.util;
+
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Something wrong with the shifts of a day, found by a ScheduleValidator.
+ * Shifts are told apart by their index in their day, counting from 0 in
+ * the order they were added.
+ * @author colli
+ *
+ */
+public final class ScheduleConflict
+{
+	/**
+	 * The kinds of conflicts.
+	 * @author colli
+	 *
+	 */
+	public enum Type
+	{
+		/**
+		 * A shift does not stop after it starts.
+		 */
+		END_BEFORE_START,
+		
+		/**
+		 * A shift starts before another one stops.
+		 */
+		OVERLAP,
+		
+		/**
+		 * A shift starts the minute another one stops.
+		 */
+		ABUT;
+	}
+	
+	/**
+	 * The kind of conflict.
+	 */
+	private final Type type;
+	
+	/**
+	 * The index of the tutor in the roster, or -1 if there is no roster.
+	 */
+	private final int tutor;
+	
+	/**
+	 * The day of the shifts.
+	 */
+	private final DayOfWeek day;
+	
+	/**
+	 * The index of the shift at fault.
+	 */
+	private final int index;
+	
+	/**
+	 * The index of the shift it runs into, or -1 if there is none.
+	 */
+	private final int other;
+	
+	/**
+	 * Constructor.
+	 * @param type the kind of conflict
+	 * @param tutor the index of the tutor in the roster, or -1 if there is no roster
+	 * @param day the day of the shifts
+	 * @param index the index of the shift at fault
+	 * @param other the index of the shift it runs into, or -1 if there is none
+	 */
+	ScheduleConflict(Type type, int tutor, DayOfWeek day, int index, int other)
+	{
+		this.type = type;
+		this.tutor = tutor;
+		this.day = day;
+		this.index = index;
+		this.other = other;
+	}
+	
+	/**
+	 * Gets the kind of conflict.
+	 * @return the type
+	 */
+	public Type getType()
+	{
+		return type;
+	}
+	
+	/**
+	 * Gets the index of the tutor in the roster.
+	 * @return the index, or -1 if a single schedule was validated
+	 */
+	public int getTutor()
+	{
+		return tutor;
+	}
+	
+	/**
+	 * Gets the day of the shifts.
+	 * @return the day
+	 */
+	public DayOfWeek getDay()
+	{
+		return day;
+	}
+	
+	/**
+	 * Gets the index of the shift at fault in its day.
+	 * @return the index
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+	
+	/**
+	 * Gets the index of the shift the one at fault runs into.
+	 * @return the index, or -1 for END_BEFORE_START
+	 */
+	public int getOther()
+	{
+		return other;
+	}
+	
+	/**
+	 * This returns the conflict for people, counting shifts and tutors
+	 * from 1, such as "Tuesday shift 2 overlaps shift 1".
+	 * @return a string representing this conflict
+	 */
+	@Override
+	public String toString()
+	{
+		return toString(tutor >= 0 ? String.valueOf(tutor + 1) : null);
+	}
+	
+	/**
+	 * This returns the conflict for people with the tutor called by name,
+	 * such as "Tutor ab123, Tuesday shift 2 overlaps shift 1".
+	 * @param tutorName the name of the tutor, or null to leave the tutor out
+	 * @return a string representing this conflict
+	 */
+	public String toString(String tutorName)
+	{
+		StringBuilder builder = new StringBuilder();
+		if(tutorName != null)
+		{
+			builder.append("Tutor ").append(tutorName).append(", ");
+		}
+		builder.append(day.getDisplayName(TextStyle.FULL, Locale.ENGLISH)).append(" shift ").append(index + 1);
+		switch(type)
+		{
+			case END_BEFORE_START:
+				builder.append(" does not end after it starts");
+				break;
+			case OVERLAP:
+				builder.append(" overlaps shift ").append(other + 1);
+				break;
+			case ABUT:
+				builder.append(" starts when shift ").append(other + 1).append(" ends");
+				break;
+		}
+		return builder.toString();
+	}
+}
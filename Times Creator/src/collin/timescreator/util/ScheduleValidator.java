@@ -0,0 +1,183 @@
+package collin.timescreator.util;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds every conflict in schedules. The shifts of each day are sorted
+ * by start and swept once, keeping the shift that stops last so far, so a
+ * day of n shifts takes O(n log n) no matter what order the shifts were
+ * entered in. Every shift that does not end after it starts, overlaps an
+ * earlier one, or starts the minute one ends is reported.
+ * <p>
+ * A roster is validated in parallel, split across the common fork-join pool.
+ * @author colli
+ *
+ */
+public final class ScheduleValidator
+{
+	/**
+	 * Rosters of at most this many tutors are validated on one thread.
+	 */
+	public static final int PARALLEL_THRESHOLD = 256;
+	
+	/**
+	 * Not made.
+	 */
+	private ScheduleValidator()
+	{
+	}
+	
+	/**
+	 * Finds every conflict in a schedule.
+	 * @param week the shifts
+	 * @return the conflicts, day by day, empty if there are none
+	 * @throws NullPointerException if the week is null
+	 */
+	public static List<ScheduleConflict> validate(WeekSchedule week) throws NullPointerException
+	{
+		List<ScheduleConflict> conflicts = new ArrayList<ScheduleConflict>();
+		validate(week, -1, new long[16], conflicts);
+		return conflicts;
+	}
+	
+	/**
+	 * Finds every conflict in every schedule of a roster, in parallel.
+	 * @param roster each tutor's shifts
+	 * @return the conflicts, tutor by tutor and day by day, empty if there are none
+	 * @throws NullPointerException if the roster or any schedule in it is null
+	 */
+	public static List<ScheduleConflict> validateAll(List<WeekSchedule> roster) throws NullPointerException
+	{
+		return ForkJoinPool.commonPool().invoke(new ValidateTask(roster, 0, roster.size()));
+	}
+	
+	/**
+	 * Finds every conflict in a schedule.
+	 * @param week the shifts
+	 * @param tutor the index of the tutor in the roster, or -1
+	 * @param keys room for sorting a day's shifts, replaced if too small
+	 * @param conflicts where to add the conflicts
+	 * @return the room for sorting, to reuse
+	 */
+	private static long[] validate(WeekSchedule week, int tutor, long[] keys, List<ScheduleConflict> conflicts)
+	{
+		for(DayOfWeek day : DayOfWeek.values())
+		{
+			int count = week.getShiftCount(day);
+			if(count == 0)
+			{
+				continue;
+			}
+			if(keys.length < count)
+			{
+				keys = new long[Math.max(count, keys.length * 2)];
+			}
+			// Start, stop and index in one long, so sorting needs no objects.
+			for(int i = 0; i < count; i++)
+			{
+				keys[i] = (long) week.getStartMinute(day, i) << 48 | (long) week.getStopMinute(day, i) << 32 | i;
+			}
+			Arrays.sort(keys, 0, count);
+			
+			int last = -1;
+			int lastStop = -1;
+			for(int i = 0; i < count; i++)
+			{
+				int start = (int) (keys[i] >>> 48);
+				int stop = (int) (keys[i] >>> 32) & 0xFFFF;
+				int index = (int) keys[i];
+				if(start >= stop)
+				{
+					conflicts.add(new ScheduleConflict(ScheduleConflict.Type.END_BEFORE_START, tutor, day, index, -1));
+					continue;
+				}
+				if(last >= 0 && start < lastStop)
+				{
+					conflicts.add(new ScheduleConflict(ScheduleConflict.Type.OVERLAP, tutor, day, index, last));
+				}
+				else if(last >= 0 && start == lastStop)
+				{
+					conflicts.add(new ScheduleConflict(ScheduleConflict.Type.ABUT, tutor, day, index, last));
+				}
+				if(stop > lastStop)
+				{
+					last = index;
+					lastStop = stop;
+				}
+			}
+		}
+		return keys;
+	}
+	
+	/**
+	 * Validates part of a roster, splitting it in half until it is small enough.
+	 * @author colli
+	 *
+	 */
+	private static class ValidateTask extends RecursiveTask<List<ScheduleConflict>>
+	{
+		/**
+		 * Serial version.
+		 */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The whole roster.
+		 */
+		private final List<WeekSchedule> roster;
+		
+		/**
+		 * The first tutor of the part.
+		 */
+		private final int from;
+		
+		/**
+		 * The tutor after the last of the part.
+		 */
+		private final int to;
+		
+		/**
+		 * Constructor.
+		 * @param roster the whole roster
+		 * @param from the first tutor of the part
+		 * @param to the tutor after the last of the part
+		 */
+		private ValidateTask(List<WeekSchedule> roster, int from, int to)
+		{
+			this.roster = roster;
+			this.from = from;
+			this.to = to;
+		}
+		
+		/**
+		 * Validates the part.
+		 * @return the conflicts of the part, in order
+		 */
+		@Override
+		protected List<ScheduleConflict> compute()
+		{
+			if(to - from <= PARALLEL_THRESHOLD)
+			{
+				List<ScheduleConflict> conflicts = new ArrayList<ScheduleConflict>();
+				long[] keys = new long[16];
+				for(int i = from; i < to; i++)
+				{
+					keys = validate(roster.get(i), i, keys, conflicts);
+				}
+				return conflicts;
+			}
+			int middle = (from + to) >>> 1;
+			ValidateTask first = new ValidateTask(roster, from, middle);
+			first.fork();
+			List<ScheduleConflict> second = new ValidateTask(roster, middle, to).compute();
+			List<ScheduleConflict> conflicts = first.join();
+			conflicts.addAll(second);
+			return conflicts;
+		}
+	}
+}
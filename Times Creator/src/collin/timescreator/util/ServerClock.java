@@ -0,0 +1,230 @@
+package collin.timescreator.util;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Clock that follows a web server's clock instead of this machine's.
+ * The server's time is read from the Date header of a HEAD request,
+ * taken as the time halfway through the request, and compared against
+ * this machine's clock. Each probe's offset is folded into a moving
+ * average, so one slow response does not throw the clock off.
+ * <p>
+ * Date headers only have whole seconds, so the offset is good to about
+ * half a second plus half the round trip.
+ * @author colli
+ *
+ */
+public class ServerClock extends Clock
+{
+	/**
+	 * How much of each new probe goes into the offset.
+	 */
+	public static final double SMOOTHING = 0.25;
+	
+	/**
+	 * Probes with a longer round trip than this are thrown away, in milliseconds.
+	 */
+	public static final long MAX_ROUND_TRIP_MILLIS = 2000;
+	
+	/**
+	 * How long a probe waits to connect or for a response, in milliseconds.
+	 */
+	private static final int TIMEOUT_MILLIS = 5000;
+	
+	/**
+	 * This machine's clock.
+	 */
+	private final Clock base;
+	
+	/**
+	 * The offset, shared with copies of this clock in other zones.
+	 */
+	private final Offset offset;
+	
+	/**
+	 * Constructor. Starts with no offset until the first probe.
+	 * @param base this machine's clock
+	 * @throws NullPointerException if the clock is null
+	 */
+	public ServerClock(Clock base) throws NullPointerException
+	{
+		this(base, new Offset());
+	}
+	
+	/**
+	 * Constructor.
+	 * @param base this machine's clock
+	 * @param offset the offset to share
+	 * @throws NullPointerException if the clock is null
+	 */
+	private ServerClock(Clock base, Offset offset) throws NullPointerException
+	{
+		if(base == null)
+			throw new NullPointerException();
+		this.base = base;
+		this.offset = offset;
+	}
+	
+	/**
+	 * Gets the time zone of this clock.
+	 * @return the zone
+	 */
+	@Override
+	public ZoneId getZone()
+	{
+		return base.getZone();
+	}
+	
+	/**
+	 * Gets a copy of this clock in another time zone that shares its offset.
+	 * @param zone the zone
+	 * @return the copy
+	 */
+	@Override
+	public Clock withZone(ZoneId zone)
+	{
+		return zone.equals(getZone()) ? this : new ServerClock(base.withZone(zone), offset);
+	}
+	
+	/**
+	 * Gets the server's current time in milliseconds.
+	 * @return epoch milliseconds
+	 */
+	@Override
+	public long millis()
+	{
+		return base.millis() + Math.round(offset.millis);
+	}
+	
+	/**
+	 * Gets the server's current time.
+	 * @return the instant
+	 */
+	@Override
+	public Instant instant()
+	{
+		return Instant.ofEpochMilli(millis());
+	}
+	
+	/**
+	 * Gets how far the server's clock is ahead of this machine's.
+	 * @return the offset, negative if the server is behind
+	 */
+	public Duration getOffset()
+	{
+		return Duration.ofMillis(Math.round(offset.millis));
+	}
+	
+	/**
+	 * Gets the amount of probes the offset is made from.
+	 * @return amount of probes
+	 */
+	public int getSampleCount()
+	{
+		return offset.samples;
+	}
+	
+	/**
+	 * Folds a measured offset into the moving average. The first one is taken as is.
+	 * @param millis how far the server's clock is ahead of this machine's
+	 */
+	public void addSample(long millis)
+	{
+		synchronized(offset)
+		{
+			offset.millis = offset.samples == 0 ? millis : offset.millis + SMOOTHING * (millis - offset.millis);
+			offset.samples++;
+		}
+	}
+	
+	/**
+	 * Sends a HEAD request to a server and folds the offset its Date
+	 * header shows into the moving average.
+	 * @param url any page of the server
+	 * @return true if the probe was used
+	 * @throws IOException if the server could not be reached
+	 */
+	public boolean probe(URL url) throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		try
+		{
+			connection.setRequestMethod("HEAD");
+			connection.setUseCaches(false);
+			connection.setConnectTimeout(TIMEOUT_MILLIS);
+			connection.setReadTimeout(TIMEOUT_MILLIS);
+			connection.connect();
+			long sent = base.millis();
+			connection.getResponseCode();
+			long received = base.millis();
+			long serverMillis = connection.getHeaderFieldDate("Date", 0);
+			if(serverMillis == 0 || received - sent > MAX_ROUND_TRIP_MILLIS)
+			{
+				return false;
+			}
+			// The Date header is cut down to the second, so the server's time was half a second later on average.
+			addSample(serverMillis + 500 - (sent + received) / 2);
+			return true;
+		}
+		finally
+		{
+			connection.disconnect();
+		}
+	}
+	
+	/**
+	 * Probes a server now and then on a background thread until the program ends.
+	 * Failed probes are skipped.
+	 * @param url any page of the server
+	 * @param period time between probes
+	 * @return the service running the probes, to shut down when no longer needed
+	 */
+	public ScheduledExecutorService startProbing(URL url, Duration period)
+	{
+		ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(r ->
+		{
+			Thread t = new Thread(r, "Server Clock");
+			t.setDaemon(true);
+			return t;
+		});
+		service.scheduleWithFixedDelay(() ->
+		{
+			try
+			{
+				probe(url);
+			}
+			catch(IOException | RuntimeException e)
+			{
+				// Keep the last offset and try again next time.
+			}
+		}, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+		return service;
+	}
+	
+	/**
+	 * The offset of a server's clock, shared between copies of a ServerClock.
+	 * @author colli
+	 *
+	 */
+	private static class Offset
+	{
+		/**
+		 * How far the server's clock is ahead, in milliseconds. Only written while holding the offset.
+		 */
+		private volatile double millis;
+		
+		/**
+		 * The amount of probes the offset is made from. Only written while holding the offset.
+		 */
+		private volatile int samples;
+	}
+}
@@ -1,5 +1,6 @@
 package collin.timescreator.util;
 
+import java.time.DateTimeException;
 import java.time.LocalTime;
 
 /**
@@ -21,33 +22,23 @@ public class Shift
 	
 	/**
 	 * Attempts to take a start and stop string and parse them for their time.
-	 * Each one is split by a ':' character and each side of the ':' character
-	 * is parsed for their integer value. The first number must be within the
-	 * 24 hour range and the second number must be within the 60 minute range.
+	 * Each one is read by the TimeParser as an hour, optionally followed by a
+	 * ':' and minutes. The hour must be within the 24 hour range and the
+	 * minutes must be within the 60 minute range.
 	 * @param startStr start time as a string
 	 * @param stopStr stop time as a string
+	 * @throws DateTimeException if either string is not a time
 	 */
-	public Shift(String startStr, String stopStr)
+	public Shift(String startStr, String stopStr) throws DateTimeException
 	{
-		String[] startData = startStr.split(":");
-		String[] stopData = stopStr.split(":");
-		if(startData.length == 1)
-		{
-			setStart(Integer.parseInt(startData[0]), 0);
-		}
-		else
-		{
-			setStart(Integer.parseInt(startData[0]), Integer.parseInt(startData[1]));
-		}
-		if(stopData.length == 1)
-		{
-			setStop(Integer.parseInt(stopData[0]), 0);
-		}
-		else
-		{
-			setStop(Integer.parseInt(stopData[0]), Integer.parseInt(stopData[1]));
-		}
-		
+		int startMinute = TimeParser.parseMinute(startStr);
+		if(startMinute == TimeParser.ERROR)
+			throw new DateTimeException("Invalid time: " + startStr);
+		int stopMinute = TimeParser.parseMinute(stopStr);
+		if(stopMinute == TimeParser.ERROR)
+			throw new DateTimeException("Invalid time: " + stopStr);
+		setStart(startMinute / 60, startMinute % 60);
+		setStop(stopMinute / 60, stopMinute % 60);
 	}
 	
 	/**
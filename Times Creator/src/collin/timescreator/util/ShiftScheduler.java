@@ -0,0 +1,512 @@
+package collin.timescreator.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs shift transitions, such as a tutor starting or stopping work, at
+ * the time they are due. Transitions are grouped into one bucket per
+ * slot of time, a minute by default, and each bucket is a single wakeup of
+ * one timer thread no matter how many tutors it holds, so hundreds of
+ * tutors do not each need a sleeping thread. The timer thread only keeps
+ * time; each transition of a bucket is handed to a dispatcher, which by
+ * default starts a thread of its own for it, as logging in or out can take
+ * tens of seconds and a bucket can hold hundreds of tutors. A fixed pool of
+ * workers would leave most of them waiting behind the first few.
+ * <p>
+ * Transitions are kept to the start of their slot, so they run up to a
+ * slot early. Cancelling or rescheduling one only touches its own bucket.
+ * <p>
+ * Wakeups are timed by the monotonic clock, which can fall behind the
+ * wall clock when the machine is suspended, and the wall clock itself can
+ * jump. A watchdog therefore wakes every few seconds and runs every bucket
+ * already due by the wall clock right away, oldest slot first. When it
+ * sees the two clocks have parted, it also sets the wakeup of every bucket
+ * still waiting again by the wall clock, so they are not left late by the
+ * time the monotonic clock lost. A wakeup that comes early by the wall
+ * clock waits again.
+ * @author colli
+ *
+ */
+public class ShiftScheduler
+{
+	/**
+	 * Default length of a slot.
+	 */
+	public static final Duration DEFAULT_RESOLUTION = Duration.ofMinutes(1);
+	
+	/**
+	 * The length of a slot, in milliseconds.
+	 */
+	private final long slotMillis;
+	
+	/**
+	 * How often the watchdog compares the clocks and catches up on missed buckets.
+	 */
+	public static final Duration WATCH_PERIOD = Duration.ofSeconds(5);
+	
+	/**
+	 * How far the wall clock may part from the monotonic clock between
+	 * two watchdog wakeups before it counts as a jump, in milliseconds.
+	 */
+	public static final long JUMP_THRESHOLD_MILLIS = 2000;
+	
+	/**
+	 * The clock transitions are timed by.
+	 */
+	private final Clock clock;
+	
+	/**
+	 * Wakes up once for every bucket.
+	 */
+	private final ScheduledThreadPoolExecutor timer;
+	
+	/**
+	 * Runs each transition once it is due.
+	 */
+	private final Executor dispatcher;
+	
+	/**
+	 * The buckets waiting to wake up, by slot.
+	 */
+	private final ConcurrentHashMap<Long, Bucket> buckets;
+	
+	/**
+	 * The amount of clock jumps the watchdog has seen.
+	 */
+	private final AtomicLong jumps;
+	
+	/**
+	 * The wall clock at the last watchdog wakeup. Only touched by the timer thread.
+	 */
+	private long lastWallMillis;
+	
+	/**
+	 * The monotonic clock at the last watchdog wakeup. Only touched by the timer thread.
+	 */
+	private long lastNanos;
+	
+	/**
+	 * Constructor. Uses the system clock, a thread for each transition
+	 * and minute slots.
+	 */
+	public ShiftScheduler()
+	{
+		this(Clock.systemDefaultZone());
+	}
+	
+	/**
+	 * Constructor. Uses a thread for each transition and minute slots.
+	 * @param clock the clock transitions are timed by
+	 * @throws NullPointerException if the clock is null
+	 */
+	public ShiftScheduler(Clock clock) throws NullPointerException
+	{
+		this(clock, threadPerTransition("Shift Worker"), DEFAULT_RESOLUTION);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param clock the clock transitions are timed by
+	 * @param dispatcher runs each transition once it is due; it should not
+	 * make transitions wait on each other, as each may take a while
+	 * @param resolution the length of a slot; transitions in the same slot share a wakeup
+	 * @throws NullPointerException if any argument is null
+	 * @throws IllegalArgumentException if the resolution is under a millisecond
+	 */
+	public ShiftScheduler(Clock clock, Executor dispatcher, Duration resolution) throws NullPointerException, IllegalArgumentException
+	{
+		if(clock == null || dispatcher == null || resolution == null)
+			throw new NullPointerException();
+		if(resolution.toMillis() <= 0)
+			throw new IllegalArgumentException(resolution.toString());
+		this.clock = clock;
+		slotMillis = resolution.toMillis();
+		timer = new ScheduledThreadPoolExecutor(1, daemonThreads("Shift Scheduler"));
+		timer.setRemoveOnCancelPolicy(true);
+		this.dispatcher = dispatcher;
+		buckets = new ConcurrentHashMap<Long, Bucket>();
+		jumps = new AtomicLong();
+		lastWallMillis = clock.millis();
+		lastNanos = System.nanoTime();
+		timer.scheduleWithFixedDelay(this::watch, WATCH_PERIOD.toMillis(), WATCH_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Makes threads for the scheduler that do not keep the program running.
+	 * @param name the start of each thread's name
+	 * @return the thread factory
+	 */
+	private static ThreadFactory daemonThreads(String name)
+	{
+		AtomicInteger count = new AtomicInteger();
+		return r ->
+		{
+			Thread t = new Thread(r, name + " " + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+	
+	/**
+	 * Makes a dispatcher that starts a new thread, which does not keep the
+	 * program running, for every transition.
+	 * @param name the start of each thread's name
+	 * @return the dispatcher
+	 * @throws NullPointerException if the name is null
+	 */
+	public static Executor threadPerTransition(String name) throws NullPointerException
+	{
+		if(name == null)
+			throw new NullPointerException();
+		ThreadFactory threads = daemonThreads(name);
+		return r -> threads.newThread(r).start();
+	}
+	
+	/**
+	 * Gets the clock transitions are timed by.
+	 * @return the clock
+	 */
+	public Clock getClock()
+	{
+		return clock;
+	}
+	
+	/**
+	 * Schedules a transition at a local time of the scheduler's clock.
+	 * @param when when the transition is due
+	 * @param action what to run
+	 * @return a handle for cancelling the transition
+	 * @throws NullPointerException if either argument is null
+	 */
+	public Transition schedule(LocalDateTime when, Runnable action) throws NullPointerException
+	{
+		return schedule(when.atZone(clock.getZone()).toInstant(), action);
+	}
+	
+	/**
+	 * Schedules a transition. A transition that is already due runs right away.
+	 * @param when when the transition is due
+	 * @param action what to run
+	 * @return a handle for cancelling the transition
+	 * @throws NullPointerException if either argument is null
+	 */
+	public Transition schedule(Instant when, Runnable action) throws NullPointerException
+	{
+		if(when == null || action == null)
+			throw new NullPointerException();
+		long slot = Math.floorDiv(when.toEpochMilli(), slotMillis);
+		Transition transition = new Transition(slot, slot * slotMillis, action);
+		add(transition);
+		return transition;
+	}
+	
+	/**
+	 * Moves a transition to a new time. The old transition is cancelled.
+	 * @param transition the transition to move
+	 * @param when when it is now due
+	 * @return a handle for the moved transition
+	 * @throws NullPointerException if either argument is null
+	 */
+	public Transition reschedule(Transition transition, Instant when) throws NullPointerException
+	{
+		transition.cancel();
+		return schedule(when, transition.action);
+	}
+	
+	/**
+	 * Gets the amount of transitions waiting to run.
+	 * @return amount of transitions
+	 */
+	public int getPendingCount()
+	{
+		int count = 0;
+		for(Bucket b : buckets.values())
+		{
+			count += b.transitions.size();
+		}
+		return count;
+	}
+	
+	/**
+	 * Gets the amount of times the wall clock was seen jumping away from
+	 * the monotonic clock, such as after the machine was suspended.
+	 * @return amount of jumps
+	 */
+	public long getJumpCount()
+	{
+		return jumps.get();
+	}
+	
+	/**
+	 * Stops waking up and drops every waiting transition. Transitions
+	 * already running are left to finish.
+	 */
+	public void shutdown()
+	{
+		timer.shutdownNow();
+		buckets.clear();
+	}
+	
+	/**
+	 * Puts a transition in the bucket of its slot, making the bucket and
+	 * its wakeup if it is the first one there.
+	 * @param transition the transition
+	 */
+	private void add(Transition transition)
+	{
+		while(true)
+		{
+			long delay = transition.time - clock.millis();
+			if(delay <= 0)
+			{
+				dispatcher.execute(transition);
+				return;
+			}
+			Bucket bucket = buckets.computeIfAbsent(transition.slot, slot ->
+			{
+				Bucket b = new Bucket(slot);
+				b.wakeup = timer.schedule(() -> fire(b), delay, TimeUnit.MILLISECONDS);
+				return b;
+			});
+			if(bucket.add(transition))
+			{
+				return;
+			}
+			// The bucket woke up while it was being added to; try again.
+			buckets.remove(transition.slot, bucket);
+		}
+	}
+	
+	/**
+	 * Wakes up a bucket, handing each of its transitions to the dispatcher.
+	 * @param bucket the bucket
+	 */
+	private void fire(Bucket bucket)
+	{
+		long early = bucket.slot * slotMillis - clock.millis();
+		if(early > 0)
+		{
+			// The wall clock went back since the wakeup was set.
+			bucket.wakeup = timer.schedule(() -> fire(bucket), early, TimeUnit.MILLISECONDS);
+			return;
+		}
+		buckets.remove(bucket.slot, bucket);
+		for(Transition t : bucket.close())
+		{
+			dispatcher.execute(t);
+		}
+	}
+	
+	/**
+	 * Runs every bucket that is due by the wall clock but has not woken
+	 * up, in slot order, so the transitions a suspend held back are
+	 * dispatched oldest first. If the wall clock jumped away from the
+	 * monotonic clock, every other bucket's wakeup is set again.
+	 */
+	private void watch()
+	{
+		long wall = clock.millis();
+		long nanos = System.nanoTime();
+		long drift = (wall - lastWallMillis) - TimeUnit.NANOSECONDS.toMillis(nanos - lastNanos);
+		boolean jumped = Math.abs(drift) > JUMP_THRESHOLD_MILLIS;
+		if(jumped)
+		{
+			jumps.incrementAndGet();
+		}
+		lastWallMillis = wall;
+		lastNanos = nanos;
+		
+		List<Bucket> due = new ArrayList<Bucket>();
+		for(Bucket b : buckets.values())
+		{
+			long delay = b.slot * slotMillis - wall;
+			if(delay <= 0)
+			{
+				due.add(b);
+			}
+			else if(jumped)
+			{
+				b.wakeup.cancel(false);
+				b.wakeup = timer.schedule(() -> fire(b), delay, TimeUnit.MILLISECONDS);
+			}
+		}
+		due.sort(Comparator.comparingLong(b -> b.slot));
+		for(Bucket b : due)
+		{
+			fire(b);
+		}
+	}
+	
+	/**
+	 * The transitions due in the same slot.
+	 * @author colli
+	 *
+	 */
+	private static class Bucket
+	{
+		/**
+		 * The slot the bucket is due in.
+		 */
+		private final long slot;
+		
+		/**
+		 * The transitions waiting in the bucket.
+		 */
+		private final Set<Transition> transitions;
+		
+		/**
+		 * Whether the bucket has woken up. Guarded by the bucket.
+		 */
+		private boolean closed;
+		
+		/**
+		 * The bucket's wakeup. Set before the bucket is shared, then only by the timer thread.
+		 */
+		private volatile ScheduledFuture<?> wakeup;
+		
+		/**
+		 * Constructor.
+		 * @param slot the slot the bucket is due in
+		 */
+		private Bucket(long slot)
+		{
+			this.slot = slot;
+			transitions = ConcurrentHashMap.newKeySet();
+		}
+		
+		/**
+		 * Adds a transition, unless the bucket has already woken up.
+		 * @param transition the transition
+		 * @return true if it was added
+		 */
+		private synchronized boolean add(Transition transition)
+		{
+			if(closed)
+			{
+				return false;
+			}
+			transition.bucket = this;
+			transitions.add(transition);
+			return true;
+		}
+		
+		/**
+		 * Closes the bucket to new transitions.
+		 * @return the transitions that were waiting, or none if it was already closed
+		 */
+		private synchronized List<Transition> close()
+		{
+			if(closed)
+			{
+				return Collections.emptyList();
+			}
+			closed = true;
+			return new ArrayList<Transition>(transitions);
+		}
+	}
+	
+	/**
+	 * A handle on a scheduled transition.
+	 * @author colli
+	 *
+	 */
+	public static class Transition implements Runnable
+	{
+		/**
+		 * The slot the transition is due in.
+		 */
+		private final long slot;
+		
+		/**
+		 * The start of its slot, in epoch milliseconds.
+		 */
+		private final long time;
+		
+		/**
+		 * What to run.
+		 */
+		private final Runnable action;
+		
+		/**
+		 * The bucket the transition waits in, or null if it runs right away.
+		 */
+		private volatile Bucket bucket;
+		
+		/**
+		 * Whether the transition was cancelled.
+		 */
+		private volatile boolean cancelled;
+		
+		/**
+		 * Constructor.
+		 * @param slot the slot the transition is due in
+		 * @param time the start of its slot, in epoch milliseconds
+		 * @param action what to run
+		 */
+		private Transition(long slot, long time, Runnable action)
+		{
+			this.slot = slot;
+			this.time = time;
+			this.action = action;
+		}
+		
+		/**
+		 * Gets when the transition is due.
+		 * @return the start of its slot
+		 */
+		public Instant getTime()
+		{
+			return Instant.ofEpochMilli(time);
+		}
+		
+		/**
+		 * Stops the transition from running if it has not started yet.
+		 */
+		public void cancel()
+		{
+			cancelled = true;
+			Bucket b = bucket;
+			if(b != null)
+			{
+				b.transitions.remove(this);
+			}
+		}
+		
+		/**
+		 * Checks if the transition was cancelled.
+		 * @return true if it was cancelled
+		 */
+		public boolean isCancelled()
+		{
+			return cancelled;
+		}
+		
+		/**
+		 * Runs the transition unless it was cancelled.
+		 */
+		@Override
+		public void run()
+		{
+			if(!cancelled)
+			{
+				action.run();
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package collin.timescreator.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats logs the same way the LoggingThread has always printed them:
+ * a header with the time, log level and any fields as key=value,
+ * followed by each line of the message indented by a tab.
+ * @author colli
+ *
+ */
+public class TextLogFormatter implements LogFormatter
+{
+	/**
+	 * The start of every header, including the padding that right aligns
+	 * the time to 30 characters as it always has been.
+	 */
+	private static final byte[] HEADER = ascii("LOG-- " + "      ");
+	
+	/**
+	 * The level part of the header, by level ordinal.
+	 */
+	private static final byte[][] LEVELS = new byte[LogLevel.values().length][];
+	
+	/**
+	 * Text before the repeat count of a log standing in for repeats.
+	 */
+	private static final byte[] REPEATED = ascii(" repeated ");
+	
+	/**
+	 * Text between the repeat count and the time of the last repeat.
+	 */
+	private static final byte[] TIMES_UNTIL = ascii(" times until ");
+	
+	/**
+	 * The end of every header.
+	 */
+	private static final byte[] HEADER_END = ascii(":\n");
+	
+	static
+	{
+		for(LogLevel level : LogLevel.values())
+		{
+			LEVELS[level.ordinal()] = ascii(" [" + level + "]");
+		}
+	}
+	
+	/**
+	 * Writes the time of each log.
+	 */
+	private final LogTimestamp timestamp = new LogTimestamp();
+	
+	/**
+	 * Appends the header and message of the given log.
+	 * @param l the log to format
+	 * @param out where to append the text
+	 */
+	@Override
+	public void format(Log l, LogBuffer out)
+	{
+		out.append(HEADER);
+		timestamp.append(l.getTime(), out);
+		out.append(LEVELS[l.getLogLevel().ordinal()]);
+		for(int i = 0; i < l.getFieldCount(); i++)
+		{
+			LogField field = l.getField(i);
+			out.append((byte) ' ').append(field.getKey()).append((byte) '=');
+			if(field.getType() == LogField.Type.NUMBER)
+			{
+				out.append(l.getNumberValue(i));
+			}
+			else
+			{
+				out.append(l.getStringValue(i));
+			}
+		}
+		if(l.getOccurrences() > 1)
+		{
+			out.append(REPEATED).append(l.getOccurrences()).append(TIMES_UNTIL);
+			timestamp.append(l.getLastTime(), out);
+		}
+		out.append(HEADER_END);
+		
+		String message = String.valueOf(l.getMessage());
+		int lineStart = 0;
+		int lineEnd;
+		while((lineEnd = message.indexOf('\n', lineStart)) >= 0)
+		{
+			out.append((byte) '\t').append(message, lineStart, lineEnd).append((byte) '\n');
+			lineStart = lineEnd + 1;
+		}
+		if(lineStart < message.length() || lineStart == 0)
+		{
+			out.append((byte) '\t').append(message, lineStart, message.length()).append((byte) '\n');
+		}
+	}
+	
+	/**
+	 * Encodes text that is known to be ASCII.
+	 * @param s the text
+	 * @return the bytes of the text
+	 */
+	private static byte[] ascii(String s)
+	{
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+}
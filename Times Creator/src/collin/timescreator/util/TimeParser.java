@@ -0,0 +1,132 @@
+package collin.timescreator.util;
+
+/**
+ * Reads times of day written as H, HH, H:, H:M, H:MM or HH:MM, the way
+ * shifts are typed and saved. The hour must be from 0 to 23 and the
+ * minute from 0 to 59; a missing minute is 0. Nothing is allocated, so
+ * text can be checked on every keystroke or scanned a line at a time.
+ * <p>
+ * A parse returns a packed int: the minute of the day in the low 16 bits
+ * and the offset just past the time in the high bits, or ERROR.
+ * @author colli
+ *
+ */
+public final class TimeParser
+{
+	/**
+	 * What a parse returns when there is no valid time.
+	 */
+	public static final int ERROR = -1;
+	
+	/**
+	 * The largest offset that fits in a packed result.
+	 */
+	private static final int MAX_END = Short.MAX_VALUE;
+	
+	/**
+	 * Not made.
+	 */
+	private TimeParser()
+	{
+	}
+	
+	/**
+	 * Reads a time starting at an offset of some text. The time ends at
+	 * the first character that cannot continue it.
+	 * @param text the text
+	 * @param offset where the time starts
+	 * @return the packed minute of the day and end offset, or ERROR
+	 */
+	public static int parse(CharSequence text, int offset)
+	{
+		int length = text.length();
+		int i = offset;
+		int hour = 0;
+		int digits = 0;
+		while(i < length && digits < 2 && isDigit(text.charAt(i)))
+		{
+			hour = hour * 10 + text.charAt(i++) - '0';
+			digits++;
+		}
+		if(digits == 0 || hour > 23)
+		{
+			return ERROR;
+		}
+		int minute = 0;
+		if(i < length && text.charAt(i) == ':')
+		{
+			i++;
+			digits = 0;
+			while(i < length && digits < 2 && isDigit(text.charAt(i)))
+			{
+				minute = minute * 10 + text.charAt(i++) - '0';
+				digits++;
+			}
+			if(minute > 59)
+			{
+				return ERROR;
+			}
+		}
+		if(i > MAX_END || (i < length && isDigit(text.charAt(i))))
+		{
+			return ERROR;
+		}
+		return i << 16 | (hour * 60 + minute);
+	}
+	
+	/**
+	 * Reads text that is nothing but a time.
+	 * @param text the text
+	 * @return the minute of the day, or ERROR
+	 */
+	public static int parseMinute(CharSequence text)
+	{
+		int packed = parse(text, 0);
+		return packed == ERROR || endOf(packed) != text.length() ? ERROR : minuteOf(packed);
+	}
+	
+	/**
+	 * Gets the minute of the day of a parse.
+	 * @param packed a result other than ERROR
+	 * @return minutes since midnight
+	 */
+	public static int minuteOf(int packed)
+	{
+		return packed & 0xFFFF;
+	}
+	
+	/**
+	 * Gets where the time of a parse ended.
+	 * @param packed a result other than ERROR
+	 * @return the offset just past the time
+	 */
+	public static int endOf(int packed)
+	{
+		return packed >>> 16;
+	}
+	
+	/**
+	 * Writes a minute of the day as HH:MM, which this parser reads back.
+	 * @param minute minutes since midnight
+	 * @return the time text
+	 */
+	public static String format(int minute)
+	{
+		int hour = minute / 60;
+		minute %= 60;
+		return new String(new char[] {
+				(char) ('0' + hour / 10), (char) ('0' + hour % 10), ':',
+				(char) ('0' + minute / 10), (char) ('0' + minute % 10)
+		});
+	}
+	
+	/**
+	 * Checks if a character is an ASCII digit.
+	 * @param c the character
+	 * @return true if c is 0 to 9
+	 */
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+}
@@ -0,0 +1,348 @@
+package collin.timescreator.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable week of shifts, kept in the order they were added for
+ * each day. Every shift is a pair of shorts, its start and stop as
+ * minutes of the day, and all the pairs of the week share one array, so
+ * a schedule is two small arrays no matter how many shifts it has.
+ * Reading shifts by index or with a ShiftVisitor allocates nothing.
+ * <p>
+ * Schedules are made with a Builder.
+ * @author colli
+ *
+ */
+public final class WeekSchedule
+{
+	/**
+	 * The days of the week, indexed by their value minus one.
+	 */
+	private static final DayOfWeek[] DAYS = DayOfWeek.values();
+	
+	/**
+	 * A week without shifts.
+	 */
+	public static final WeekSchedule EMPTY = new WeekSchedule(new short[0], new int[DAYS.length + 1]);
+	
+	/**
+	 * Start and stop minutes of every shift, Monday's shifts first.
+	 */
+	private final short[] minutes;
+	
+	/**
+	 * The index of the first shift of each day, and the amount of shifts at the end.
+	 */
+	private final int[] offsets;
+	
+	/**
+	 * Constructor.
+	 * @param minutes start and stop minutes of every shift, Monday's shifts first
+	 * @param offsets the index of the first shift of each day, and the amount of shifts
+	 */
+	private WeekSchedule(short[] minutes, int[] offsets)
+	{
+		this.minutes = minutes;
+		this.offsets = offsets;
+	}
+	
+	/**
+	 * Gets the amount of shifts in the week.
+	 * @return amount of shifts
+	 */
+	public int getShiftCount()
+	{
+		return offsets[DAYS.length];
+	}
+	
+	/**
+	 * Gets the amount of shifts of a day.
+	 * @param day the day
+	 * @return amount of shifts
+	 * @throws NullPointerException if the day is null
+	 */
+	public int getShiftCount(DayOfWeek day) throws NullPointerException
+	{
+		int d = day.ordinal();
+		return offsets[d + 1] - offsets[d];
+	}
+	
+	/**
+	 * Checks if the week has no shifts.
+	 * @return true if there are no shifts
+	 */
+	public boolean isEmpty()
+	{
+		return offsets[DAYS.length] == 0;
+	}
+	
+	/**
+	 * Gets when a shift starts.
+	 * @param day the day of the shift
+	 * @param index the index of the shift in its day
+	 * @return minutes since midnight
+	 * @throws IndexOutOfBoundsException if the day has no such shift
+	 */
+	public int getStartMinute(DayOfWeek day, int index) throws IndexOutOfBoundsException
+	{
+		return minutes[position(day, index)];
+	}
+	
+	/**
+	 * Gets when a shift stops.
+	 * @param day the day of the shift
+	 * @param index the index of the shift in its day
+	 * @return minutes since midnight
+	 * @throws IndexOutOfBoundsException if the day has no such shift
+	 */
+	public int getStopMinute(DayOfWeek day, int index) throws IndexOutOfBoundsException
+	{
+		return minutes[position(day, index) + 1];
+	}
+	
+	/**
+	 * Gets when a shift starts.
+	 * @param day the day of the shift
+	 * @param index the index of the shift in its day
+	 * @return start time
+	 * @throws IndexOutOfBoundsException if the day has no such shift
+	 */
+	public LocalTime getStart(DayOfWeek day, int index) throws IndexOutOfBoundsException
+	{
+		return toTime(getStartMinute(day, index));
+	}
+	
+	/**
+	 * Gets when a shift stops.
+	 * @param day the day of the shift
+	 * @param index the index of the shift in its day
+	 * @return stop time
+	 * @throws IndexOutOfBoundsException if the day has no such shift
+	 */
+	public LocalTime getStop(DayOfWeek day, int index) throws IndexOutOfBoundsException
+	{
+		return toTime(getStopMinute(day, index));
+	}
+	
+	/**
+	 * Visits every shift of the week in order, Monday's shifts first.
+	 * @param visitor what to do with each shift
+	 */
+	public void forEachShift(ShiftVisitor visitor)
+	{
+		for(int d = 0; d < DAYS.length; d++)
+		{
+			for(int i = offsets[d]; i < offsets[d + 1]; i++)
+			{
+				visitor.visit(DAYS[d], minutes[i * 2], minutes[i * 2 + 1]);
+			}
+		}
+	}
+	
+	/**
+	 * Visits every shift of a day in order.
+	 * @param day the day
+	 * @param visitor what to do with each shift
+	 */
+	public void forEachShift(DayOfWeek day, ShiftVisitor visitor)
+	{
+		int d = day.ordinal();
+		for(int i = offsets[d]; i < offsets[d + 1]; i++)
+		{
+			visitor.visit(day, minutes[i * 2], minutes[i * 2 + 1]);
+		}
+	}
+	
+	/**
+	 * Finds where a shift is kept.
+	 * @param day the day of the shift
+	 * @param index the index of the shift in its day
+	 * @return the index of its start minute
+	 * @throws IndexOutOfBoundsException if the day has no such shift
+	 */
+	private int position(DayOfWeek day, int index) throws IndexOutOfBoundsException
+	{
+		int d = day.ordinal();
+		if(index < 0 || index >= offsets[d + 1] - offsets[d])
+			throw new IndexOutOfBoundsException(day + " " + index);
+		return (offsets[d] + index) * 2;
+	}
+	
+	/**
+	 * Turns a minute of the day into a time.
+	 * @param minute minutes since midnight
+	 * @return the time
+	 */
+	private static LocalTime toTime(int minute)
+	{
+		return LocalTime.of(minute / 60, minute % 60);
+	}
+	
+	/**
+	 * This returns each day with shifts and its shifts in the
+	 * form HH:MM-HH:MM, such as "{MONDAY=[08:00-09:00]}".
+	 * @return a string representing this object
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder().append('{');
+		for(DayOfWeek day : DAYS)
+		{
+			int count = getShiftCount(day);
+			if(count == 0)
+			{
+				continue;
+			}
+			if(builder.length() > 1)
+			{
+				builder.append(", ");
+			}
+			builder.append(day).append("=[");
+			for(int i = 0; i < count; i++)
+			{
+				if(i > 0)
+				{
+					builder.append(", ");
+				}
+				builder.append(getStart(day, i)).append('-').append(getStop(day, i));
+			}
+			builder.append(']');
+		}
+		return builder.append('}').toString();
+	}
+	
+	/**
+	 * Receives the shifts of a WeekSchedule one at a time.
+	 * @author colli
+	 *
+	 */
+	@FunctionalInterface
+	public interface ShiftVisitor
+	{
+		/**
+		 * Receives a shift.
+		 * @param day the day of the shift
+		 * @param startMinute when the shift starts, in minutes since midnight
+		 * @param stopMinute when the shift stops, in minutes since midnight
+		 */
+		public abstract void visit(DayOfWeek day, int startMinute, int stopMinute);
+	}
+	
+	/**
+	 * Collects shifts for a WeekSchedule. Shifts may be added to the days in any order.
+	 * @author colli
+	 *
+	 */
+	public static class Builder
+	{
+		/**
+		 * Start and stop minutes of each day's shifts.
+		 */
+		private final short[][] days;
+		
+		/**
+		 * The amount of shifts of each day.
+		 */
+		private final int[] counts;
+		
+		/**
+		 * Constructor.
+		 */
+		public Builder()
+		{
+			days = new short[DAYS.length][];
+			counts = new int[DAYS.length];
+		}
+		
+		/**
+		 * Adds a shift to the end of a day.
+		 * @param day the day
+		 * @param startMinute when the shift starts, in minutes since midnight
+		 * @param stopMinute when the shift stops, in minutes since midnight
+		 * @return this builder
+		 * @throws NullPointerException if the day is null
+		 * @throws IllegalArgumentException if either minute is not within a day
+		 */
+		public Builder add(DayOfWeek day, int startMinute, int stopMinute) throws NullPointerException, IllegalArgumentException
+		{
+			if(day == null)
+				throw new NullPointerException();
+			if(startMinute < 0 || startMinute >= WeeklyTransitions.MINUTES_PER_DAY
+					|| stopMinute < 0 || stopMinute >= WeeklyTransitions.MINUTES_PER_DAY)
+				throw new IllegalArgumentException(startMinute + "-" + stopMinute);
+			int d = day.ordinal();
+			if(days[d] == null)
+			{
+				days[d] = new short[8];
+			}
+			else if(counts[d] * 2 == days[d].length)
+			{
+				days[d] = Arrays.copyOf(days[d], days[d].length * 2);
+			}
+			days[d][counts[d] * 2] = (short) startMinute;
+			days[d][counts[d] * 2 + 1] = (short) stopMinute;
+			counts[d]++;
+			return this;
+		}
+		
+		/**
+		 * Adds a shift to the end of a day.
+		 * @param day the day
+		 * @param shift the shift
+		 * @return this builder
+		 * @throws NullPointerException if the day or shift is null
+		 */
+		public Builder add(DayOfWeek day, Shift shift) throws NullPointerException
+		{
+			LocalTime start = shift.getStart();
+			LocalTime stop = shift.getStop();
+			return add(day, start.getHour() * 60 + start.getMinute(), stop.getHour() * 60 + stop.getMinute());
+		}
+		
+		/**
+		 * Adds shifts to the end of a day, in order.
+		 * @param day the day
+		 * @param shifts the shifts
+		 * @return this builder
+		 * @throws NullPointerException if the day, shifts or any shift is null
+		 */
+		public Builder addAll(DayOfWeek day, List<Shift> shifts) throws NullPointerException
+		{
+			for(Shift shift : shifts)
+			{
+				add(day, shift);
+			}
+			return this;
+		}
+		
+		/**
+		 * Makes a schedule of the shifts added so far.
+		 * @return the schedule
+		 */
+		public WeekSchedule build()
+		{
+			int[] offsets = new int[DAYS.length + 1];
+			for(int d = 0; d < DAYS.length; d++)
+			{
+				offsets[d + 1] = offsets[d] + counts[d];
+			}
+			if(offsets[DAYS.length] == 0)
+			{
+				return EMPTY;
+			}
+			short[] minutes = new short[offsets[DAYS.length] * 2];
+			for(int d = 0; d < DAYS.length; d++)
+			{
+				if(counts[d] > 0)
+				{
+					System.arraycopy(days[d], 0, minutes, offsets[d] * 2, counts[d] * 2);
+				}
+			}
+			return new WeekSchedule(minutes, offsets);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package collin.timescreator.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * A week of shifts compiled into the times a tutor starts and stops
+ * working. Each transition is packed into an int as its minute of the
+ * week, counted from Monday at midnight, shifted left once, with the low
+ * bit set if the tutor starts working then. The table is sorted, so
+ * finding the next transition is a binary search that allocates nothing.
+ * <p>
+ * Shifts of a day that touch or overlap are merged, and no shift passes
+ * midnight, so each day holds whole start and stop pairs. The table is
+ * immutable and can be shared by any number of tutors.
+ * @author colli
+ *
+ */
+public final class WeeklyTransitions
+{
+	/**
+	 * Minutes in a day.
+	 */
+	public static final int MINUTES_PER_DAY = 24 * 60;
+	
+	/**
+	 * Minutes in a week.
+	 */
+	public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+	
+	/**
+	 * A week without shifts.
+	 */
+	public static final WeeklyTransitions EMPTY = new WeeklyTransitions(new int[0]);
+	
+	/**
+	 * The packed transitions, sorted.
+	 */
+	private final int[] table;
+	
+	/**
+	 * Constructor.
+	 * @param table the packed transitions, sorted
+	 */
+	private WeeklyTransitions(int[] table)
+	{
+		this.table = table;
+	}
+	
+	/**
+	 * Compiles a week of shifts. Shifts that do not stop after they start are left out.
+	 * @param week the shifts
+	 * @return the transitions
+	 * @throws NullPointerException if the week is null
+	 */
+	public static WeeklyTransitions compile(WeekSchedule week) throws NullPointerException
+	{
+		int[] table = new int[week.getShiftCount() * 2];
+		int size = 0;
+		int[] shifts = new int[16];
+		for(DayOfWeek day : DayOfWeek.values())
+		{
+			// Each shift as its start in the high half and stop in the low, so they sort by start.
+			int count = 0;
+			for(int i = 0; i < week.getShiftCount(day); i++)
+			{
+				int start = week.getStartMinute(day, i);
+				int stop = week.getStopMinute(day, i);
+				if(start < stop)
+				{
+					if(count == shifts.length)
+					{
+						shifts = Arrays.copyOf(shifts, count * 2);
+					}
+					shifts[count++] = start << 16 | stop;
+				}
+			}
+			Arrays.sort(shifts, 0, count);
+			
+			int i = 0;
+			while(i < count)
+			{
+				int start = shifts[i] >>> 16;
+				int stop = shifts[i] & 0xFFFF;
+				for(i++; i < count && shifts[i] >>> 16 <= stop; i++)
+				{
+					stop = Math.max(stop, shifts[i] & 0xFFFF);
+				}
+				table[size++] = pack(minuteOfWeek(day, start), true);
+				table[size++] = pack(minuteOfWeek(day, stop), false);
+			}
+		}
+		return size == 0 ? EMPTY : new WeeklyTransitions(Arrays.copyOf(table, size));
+	}
+	
+	/**
+	 * Gets the minute of the week of a minute of a day.
+	 * @param day the day
+	 * @param minuteOfDay minutes since midnight
+	 * @return minutes since Monday at midnight
+	 */
+	private static int minuteOfWeek(DayOfWeek day, int minuteOfDay)
+	{
+		return (day.getValue() - 1) * MINUTES_PER_DAY + minuteOfDay;
+	}
+	
+	/**
+	 * Packs a transition.
+	 * @param minuteOfWeek the minute of the week it happens at
+	 * @param on true if the tutor starts working then
+	 * @return the packed transition
+	 */
+	private static int pack(int minuteOfWeek, boolean on)
+	{
+		return minuteOfWeek << 1 | (on ? 1 : 0);
+	}
+	
+	/**
+	 * Gets the minute of the week of a time of a day.
+	 * @param day the day
+	 * @param time the time of the day
+	 * @return minutes since Monday at midnight
+	 */
+	public static int minuteOfWeek(DayOfWeek day, LocalTime time)
+	{
+		return (day.getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+	}
+	
+	/**
+	 * Gets the minute of the week of a date and time.
+	 * @param time the date and time
+	 * @return minutes since the Monday at midnight before it
+	 */
+	public static int minuteOfWeek(LocalDateTime time)
+	{
+		return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+	}
+	
+	/**
+	 * Gets the amount of transitions in the week.
+	 * @return amount of transitions
+	 */
+	public int size()
+	{
+		return table.length;
+	}
+	
+	/**
+	 * Checks if the week has no shifts.
+	 * @return true if there are no transitions
+	 */
+	public boolean isEmpty()
+	{
+		return table.length == 0;
+	}
+	
+	/**
+	 * Gets the minute of the week of a transition.
+	 * @param index the index of the transition
+	 * @return minutes since Monday at midnight
+	 * @throws ArrayIndexOutOfBoundsException if there is no such transition
+	 */
+	public int getMinute(int index) throws ArrayIndexOutOfBoundsException
+	{
+		return table[index] >>> 1;
+	}
+	
+	/**
+	 * Checks if a transition starts work.
+	 * @param index the index of the transition
+	 * @return true if the tutor starts working, false if they stop
+	 * @throws ArrayIndexOutOfBoundsException if there is no such transition
+	 */
+	public boolean isOn(int index) throws ArrayIndexOutOfBoundsException
+	{
+		return (table[index] & 1) != 0;
+	}
+	
+	/**
+	 * Finds the first transition at or after a minute of the week, not wrapping around the week.
+	 * @param minuteOfWeek the minute, which may be past the end of the week
+	 * @return the index of the transition, or size() if there is none
+	 */
+	public int ceilingIndex(int minuteOfWeek)
+	{
+		int i = Arrays.binarySearch(table, minuteOfWeek << 1);
+		return i >= 0 ? i : -i - 1;
+	}
+	
+	/**
+	 * Finds the next transition after a minute of the week, wrapping around to the start of the week.
+	 * @param minuteOfWeek the minute
+	 * @return the index of the transition, or -1 if there are no transitions
+	 */
+	public int nextIndex(int minuteOfWeek)
+	{
+		if(table.length == 0)
+		{
+			return -1;
+		}
+		int i = ceilingIndex(minuteOfWeek + 1);
+		return i == table.length ? 0 : i;
+	}
+	
+	/**
+	 * Checks if the tutor should be working at a minute of the week.
+	 * @param minuteOfWeek the minute
+	 * @return true if the last transition at or before the minute started work
+	 */
+	public boolean isOnAt(int minuteOfWeek)
+	{
+		if(table.length == 0)
+		{
+			return false;
+		}
+		int i = ceilingIndex(minuteOfWeek + 1) - 1;
+		return isOn(i < 0 ? table.length - 1 : i);
+	}
+	
+	/**
+	 * This returns the transitions as a string, such as "[0480+, 0540-]"
+	 * for working Monday from 8:00 to 9:00.
+	 * @return a string representing this object
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(table.length * 7 + 2).append('[');
+		for(int i = 0; i < table.length; i++)
+		{
+			if(i > 0)
+			{
+				builder.append(", ");
+			}
+			builder.append(String.format("%04d", getMinute(i))).append(isOn(i) ? '+' : '-');
+		}
+		return builder.append(']').toString();
+	}
+}